@@ -0,0 +1,34 @@
+package com.microservices.apigateway.cache;
+
+import java.time.Instant;
+
+/**
+ * The parts of a verified access token the gateway forwards downstream.
+ */
+public final class VerifiedToken {
+    private final String subject;
+    private final String role;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String subject, String role, Instant expiresAt) {
+        this.subject = subject;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
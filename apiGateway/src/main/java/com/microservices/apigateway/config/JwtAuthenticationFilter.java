@@ -1,9 +1,10 @@
 package com.microservices.apigateway.config;
 
+import com.microservices.apigateway.cache.VerifiedToken;
+import com.microservices.apigateway.cache.VerifiedTokenCache;
+import com.microservices.jwt.JwtClaimNames;
+import com.microservices.jwt.JwtVerification;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -23,14 +24,23 @@ import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+    /**
+     * Exchange attribute holding the subject of the verified token, for filters that run later.
+     */
+    public static final String SUBJECT_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".subject";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     // Public endpoints that don't require authentication
     private final List<String> publicEndpoints = Arrays.asList(
             "/api/auth/login",
             "/api/auth/signup",
-            "/api/auth/refresh-token"
+            "/api/auth/refresh-token",
+            "/api/auth/availability"
 
     );
 
@@ -52,29 +62,46 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
-        try {
-            if (jwtUtil.validateToken(token)) {
-                Claims claims = jwtUtil.extractAllClaims(token);
-
-                // Add user information to request headers
-                ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("X-User-Id", claims.getSubject())
-                        .header("X-User-Role", claims.get("role", String.class))
-                        .build();
+        // Tokens are reused for their whole lifetime, so skip the signature check when we have seen this one
+        VerifiedToken cached = tokenCache.get(token);
+        if (cached != null) {
+            return forwardAuthenticated(exchange, chain, cached);
+        }
 
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
-            } else {
+        JwtVerification verification = jwtUtil.verify(token);
+        switch (verification.getStatus()) {
+            case VALID:
+                Claims claims = verification.getClaims();
+
+                VerifiedToken verified = new VerifiedToken(
+                        claims.getSubject(),
+                        claims.get(JwtClaimNames.ROLE, String.class),
+                        claims.getExpiration().toInstant());
+                tokenCache.put(token, verified);
+
+                return forwardAuthenticated(exchange, chain, verified);
+            case EXPIRED:
+                return handleError(exchange, "Token expired", HttpStatus.UNAUTHORIZED);
+            case MALFORMED:
+            case INVALID_SIGNATURE:
+                return handleError(exchange, "Invalid token signature", HttpStatus.UNAUTHORIZED);
+            default:
                 return handleError(exchange, "Invalid token", HttpStatus.UNAUTHORIZED);
-            }
-        } catch (ExpiredJwtException e) {
-            return handleError(exchange, "Token expired", HttpStatus.UNAUTHORIZED);
-        } catch (MalformedJwtException | SignatureException e) {
-            return handleError(exchange, "Invalid token signature", HttpStatus.UNAUTHORIZED);
-        } catch (Exception e) {
-            return handleError(exchange, "Authentication error: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
         }
     }
 
+    private Mono<Void> forwardAuthenticated(ServerWebExchange exchange, GatewayFilterChain chain, VerifiedToken verified) {
+        exchange.getAttributes().put(SUBJECT_ATTRIBUTE, verified.getSubject());
+
+        // Add user information to request headers
+        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                .header("X-User-Id", verified.getSubject())
+                .header("X-User-Role", verified.getRole())
+                .build();
+
+        return chain.filter(exchange.mutate().request(modifiedRequest).build());
+    }
+
     private Mono<Void> handleError(ServerWebExchange exchange, String message, HttpStatus status) {
         exchange.getResponse().setStatusCode(status);
         exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
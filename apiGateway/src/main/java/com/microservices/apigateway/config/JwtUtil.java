@@ -1,45 +1,20 @@
 package com.microservices.apigateway.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.io.Decoders;
+import com.microservices.jwt.JwtVerification;
+import com.microservices.jwt.JwtVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
-import java.util.Date;
-
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secret;
-
-    public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+    private final JwtVerifier verifier;
 
-            // Check if the token is expired
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        // Key and parser are built once and shared by every request
+        this.verifier = new JwtVerifier(secret);
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtVerification verify(String token) {
+        return verifier.verify(token);
     }
-}
\ No newline at end of file
+}
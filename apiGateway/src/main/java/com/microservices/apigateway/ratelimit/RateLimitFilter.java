@@ -0,0 +1,157 @@
+package com.microservices.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.apigateway.config.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits each route per user, with a {@link TokenBucket} per route and JWT subject, or per route and
+ * client IP for requests without a verified token. Limits come from {@code gateway.rate-limit.routes}.
+ * <p>
+ * Every response of a limited route carries {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset}; refused requests get 429 with {@code Retry-After}. Buckets live in memory only,
+ * bounded by {@code max-buckets}, and an idle bucket is dropped once it would have refilled completely,
+ * since it is then no different from a new one.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfter(new IdleUntilFull())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "gateway.rate-limit.buckets");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RateLimitProperties.Limit limit = route != null ? properties.getRoutes().get(route.getId()) : null;
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(route.getId() + '|' + clientKey(exchange),
+                key -> new TokenBucket(limit.getReplenishRate(), limit.getBurstCapacity(), now));
+        TokenBucket.Result result = bucket.tryConsume(now);
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(LIMIT_HEADER, String.valueOf(result.limit()));
+        headers.set(REMAINING_HEADER, String.valueOf(result.remaining()));
+        headers.set(RESET_HEADER, String.valueOf(toSeconds(result.resetNanos())));
+
+        if (result.allowed()) {
+            return chain.filter(exchange);
+        }
+
+        rejectedCounter(route.getId()).increment();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, toSeconds(result.retryAfterNanos()))));
+        return reject(exchange);
+    }
+
+    /**
+     * Verified users are limited by subject wherever they connect from; everyone else by address.
+     */
+    private static String clientKey(ServerWebExchange exchange) {
+        String subject = exchange.getAttribute(JwtAuthenticationFilter.SUBJECT_ATTRIBUTE);
+        if (subject != null) {
+            return "user:" + subject;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return "ip:" + remoteAddress.getAddress().getHostAddress();
+        }
+        return "ip:unknown";
+    }
+
+    private Counter rejectedCounter(String routeId) {
+        return rejectedCounters.computeIfAbsent(routeId, id -> Counter.builder("gateway.rate-limit.rejected")
+                .description("Requests refused because the caller's rate limit was used up")
+                .tag("route", id)
+                .register(meterRegistry));
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange) {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String errorBody = String.format("{\"status\":\"%s\",\"message\":\"%s\"}",
+                status.value(), "Rate limit exceeded");
+
+        byte[] bytes = errorBody.getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = exchange.getResponse().bufferFactory().wrap(bytes);
+
+        return exchange.getResponse().writeWith(Mono.just(buffer));
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public int getOrder() {
+        // After JwtAuthenticationFilter, which records the subject
+        return 0;
+    }
+
+    /**
+     * Keeps each bucket for as long as it takes to refill from empty, counted from its last use.
+     */
+    private static class IdleUntilFull implements Expiry<String, TokenBucket> {
+        @Override
+        public long expireAfterCreate(String key, TokenBucket value, long currentTime) {
+            return value.getCapacityNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket value, long currentTime, long currentDuration) {
+            return value.getCapacityNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket value, long currentTime, long currentDuration) {
+            return value.getCapacityNanos();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.apigateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limits applied by {@link RateLimitFilter}, bound from {@code gateway.rate-limit}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Whether requests are rate limited at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Buckets kept in memory across all routes; the least recently used are dropped beyond this.
+     */
+    private long maxBuckets = 100000;
+
+    /**
+     * Limits by route id. Routes without an entry are not limited.
+     */
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    public static class Limit {
+        /**
+         * Requests per second each user or client may sustain.
+         */
+        private double replenishRate;
+
+        /**
+         * Requests each user or client may make at once after being idle.
+         */
+        private int burstCapacity;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
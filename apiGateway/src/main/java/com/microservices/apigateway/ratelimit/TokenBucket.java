@@ -0,0 +1,74 @@
+package com.microservices.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept in the form of the generic cell rate algorithm.
+ * <p>
+ * Instead of a token count and a refill timestamp, the bucket stores a single value: the theoretical
+ * arrival time at which it would be full again. Taking a token pushes that time one emission interval
+ * further out; a request is refused when doing so would put it more than the burst capacity ahead of now.
+ * One {@link AtomicLong} and a compare-and-set per request is all the state and synchronization needed.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final int burstCapacity;
+    private final AtomicLong fullAt;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param replenishRate tokens added per second
+     * @param burstCapacity tokens the bucket holds
+     * @param now the current {@link System#nanoTime()}
+     */
+    public TokenBucket(double replenishRate, int burstCapacity, long now) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / replenishRate));
+        this.burstCapacity = Math.max(1, burstCapacity);
+        this.capacityNanos = emissionIntervalNanos * this.burstCapacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take one token if there is one.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the outcome, with the figures for the rate limit headers
+     */
+    public Result tryConsume(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long allowedAt = next - capacityNanos;
+            if (now < allowedAt) {
+                long refillNanos = Math.max(current, now) - now;
+                return new Result(false, burstCapacity, 0, allowedAt - now, refillNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                int remaining = (int) ((capacityNanos - (next - now)) / emissionIntervalNanos);
+                return new Result(true, burstCapacity, remaining, 0, next - now);
+            }
+        }
+    }
+
+    /**
+     * @return how long the bucket takes to fill up from empty, after which an idle bucket equals a new one
+     */
+    public long getCapacityNanos() {
+        return capacityNanos;
+    }
+
+    /**
+     * Outcome of a {@link #tryConsume} call.
+     *
+     * @param allowed whether a token was taken
+     * @param limit the burst capacity
+     * @param remaining tokens left after this request
+     * @param retryAfterNanos how long until a token is available, when refused
+     * @param resetNanos how long until the bucket is full again
+     */
+    public record Result(boolean allowed, int limit, int remaining, long retryAfterNanos, long resetNanos) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.microservices.apigateway.shedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits every routed request under the {@link PriorityAdmission} budget, with the priority class of its
+ * route. Shed requests get 503 with Retry-After before any other filter has spent work on them.
+ * <p>
+ * Publishes {@code gateway.load-shedding.queue-wait} and {@code gateway.load-shedding.shed} by class and,
+ * for shed requests, by reason, along with the in-flight and queued gauges.
+ */
+@Component
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    private final LoadSheddingProperties properties;
+    private final PriorityAdmission admission;
+    private final MeterRegistry meterRegistry;
+    private final Map<PriorityClass, Duration> maxWaits = new EnumMap<>(PriorityClass.class);
+    private final Map<PriorityClass, Timer> waitTimers = new EnumMap<>(PriorityClass.class);
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.admission = new PriorityAdmission(properties);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("gateway.load-shedding.in-flight", admission, PriorityAdmission::getInFlight)
+                .description("Requests in flight under the gateway-wide budget")
+                .register(meterRegistry);
+        for (PriorityClass priority : PriorityClass.values()) {
+            LoadSheddingProperties.ClassSettings settings = properties.getClasses().get(priority);
+            maxWaits.put(priority, Duration.ofMillis(settings != null ? settings.getMaxWaitMs() : 0));
+            waitTimers.put(priority, Timer.builder("gateway.load-shedding.queue-wait")
+                    .description("Time requests spend queued for a slot of the in-flight budget")
+                    .tag("class", priority.getTag())
+                    .register(meterRegistry));
+            Gauge.builder("gateway.load-shedding.queued", admission, a -> a.getQueued(priority))
+                    .description("Requests waiting for a slot of the in-flight budget")
+                    .tag("class", priority.getTag())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        PriorityClass priority = PriorityClass.of(route);
+
+        return Mono.usingWhen(
+                        admission.acquire(priority, maxWaits.get(priority))
+                                .doOnNext(permit -> waitTimers.get(priority)
+                                        .record(permit.getWaitedNanos(), TimeUnit.NANOSECONDS)),
+                        permit -> chain.filter(exchange),
+                        permit -> Mono.fromRunnable(permit::release),
+                        (permit, error) -> Mono.fromRunnable(permit::release),
+                        permit -> Mono.fromRunnable(permit::release))
+                .onErrorResume(PriorityAdmission.ShedException.class, e -> {
+                    shedCounter(priority, e.getReason()).increment();
+                    return shed(exchange);
+                });
+    }
+
+    private Counter shedCounter(PriorityClass priority, PriorityAdmission.ShedException.Reason reason) {
+        return shedCounters.computeIfAbsent(priority.getTag() + '|' + reason.getTag(),
+                key -> Counter.builder("gateway.load-shedding.shed")
+                        .description("Requests shed instead of admitted under the in-flight budget")
+                        .tag("class", priority.getTag())
+                        .tag("reason", reason.getTag())
+                        .register(meterRegistry));
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        exchange.getResponse().getHeaders()
+                .set(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+
+        String errorBody = String.format("{\"status\":\"%s\",\"message\":\"%s\"}",
+                status.value(), "Gateway is overloaded, please retry later");
+
+        byte[] bytes = errorBody.getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = exchange.getResponse().bufferFactory().wrap(bytes);
+
+        return exchange.getResponse().writeWith(Mono.just(buffer));
+    }
+
+    @Override
+    public int getOrder() {
+        // Ahead of JwtAuthenticationFilter, so shed requests cost no token verification
+        return -2;
+    }
+}
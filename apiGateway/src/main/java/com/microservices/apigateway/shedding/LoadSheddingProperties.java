@@ -0,0 +1,125 @@
+package com.microservices.apigateway.shedding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load shedding settings used by {@link LoadSheddingFilter}, bound from {@code gateway.load-shedding}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public class LoadSheddingProperties {
+    /**
+     * Whether requests are admitted under the in-flight budget at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests the gateway has in flight at most, over all routes.
+     */
+    private int maxInFlight = 500;
+
+    /**
+     * Value of the Retry-After header sent with shed requests.
+     */
+    private int retryAfterSeconds = 1;
+
+    /**
+     * Admission settings by priority class.
+     */
+    private Map<PriorityClass, ClassSettings> classes = defaults();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Map<PriorityClass, ClassSettings> getClasses() {
+        return classes;
+    }
+
+    public void setClasses(Map<PriorityClass, ClassSettings> classes) {
+        this.classes = classes;
+    }
+
+    private static Map<PriorityClass, ClassSettings> defaults() {
+        Map<PriorityClass, ClassSettings> defaults = new EnumMap<>(PriorityClass.class);
+        defaults.put(PriorityClass.CRITICAL, new ClassSettings(100, 200, 2000));
+        defaults.put(PriorityClass.INTERACTIVE, new ClassSettings(90, 200, 1000));
+        defaults.put(PriorityClass.BULK, new ClassSettings(60, 50, 10000));
+        return defaults;
+    }
+
+    public static class ClassSettings {
+        /**
+         * Share of max-in-flight, in percent, up to which requests of this class are let straight through.
+         * Beyond it they queue, so lower classes give way to higher ones before the budget runs out.
+         */
+        private int admitBelowPercent;
+
+        /**
+         * Requests of this class allowed to queue before new ones are shed.
+         */
+        private int maxQueued;
+
+        /**
+         * Longest a request of this class waits in the queue before it is shed, in milliseconds.
+         */
+        private long maxWaitMs;
+
+        public ClassSettings() {
+        }
+
+        public ClassSettings(int admitBelowPercent, int maxQueued, long maxWaitMs) {
+            this.admitBelowPercent = admitBelowPercent;
+            this.maxQueued = maxQueued;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getAdmitBelowPercent() {
+            return admitBelowPercent;
+        }
+
+        public void setAdmitBelowPercent(int admitBelowPercent) {
+            this.admitBelowPercent = admitBelowPercent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+}
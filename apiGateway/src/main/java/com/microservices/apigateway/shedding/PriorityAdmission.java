@@ -0,0 +1,274 @@
+package com.microservices.apigateway.shedding;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gateway-wide in-flight budget that gives way by priority.
+ * <p>
+ * Each {@link PriorityClass} is let straight through while the number of requests in flight is below its
+ * own share of the budget. Past that share it queues, and whenever a request finishes the queues are served
+ * from the highest class down. Bulk traffic, with the smallest share, therefore starts waiting first and
+ * leaves the rest of the budget to interactive and critical requests. A request is shed when its class
+ * queue is full or it has waited too long.
+ * <p>
+ * Admission is a compare-and-set while nothing is queued; the queues themselves are guarded by a lock
+ * that is only ever held for a few field updates.
+ */
+public class PriorityAdmission {
+
+    private final Map<PriorityClass, Integer> thresholds = new EnumMap<>(PriorityClass.class);
+    private final Map<PriorityClass, Integer> maxQueued = new EnumMap<>(PriorityClass.class);
+    private final Map<PriorityClass, ArrayDeque<Waiter>> queues = new EnumMap<>(PriorityClass.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PriorityAdmission(LoadSheddingProperties properties) {
+        for (PriorityClass priority : PriorityClass.values()) {
+            LoadSheddingProperties.ClassSettings settings = properties.getClasses().get(priority);
+            int percent = settings != null ? settings.getAdmitBelowPercent() : 100;
+            thresholds.put(priority, Math.max(1, properties.getMaxInFlight() * Math.min(100, percent) / 100));
+            maxQueued.put(priority, settings != null ? settings.getMaxQueued() : 0);
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Take a slot of the budget, waiting in the queue of the class if needed.
+     *
+     * @param priority the class of the request
+     * @param maxWait how long the request may wait in the queue
+     * @return the permit, to be released when the request finishes; fails with {@link ShedException}
+     * if the request is shed
+     */
+    public Mono<Permit> acquire(PriorityClass priority, Duration maxWait) {
+        if (queued.get() == 0 && tryIncrement(thresholds.get(priority))) {
+            return Mono.just(new Permit(0));
+        }
+
+        Waiter waiter = new Waiter(priority, System.nanoTime());
+        List<Waiter> admitted;
+        lock.lock();
+        try {
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            if (queue.size() >= maxQueued.get(priority)) {
+                return Mono.error(new ShedException(ShedException.Reason.QUEUE_FULL));
+            }
+            queue.addLast(waiter);
+            queued.incrementAndGet();
+            // A slot may have been freed between the failed attempt above and taking the lock
+            admitted = drain();
+        } finally {
+            lock.unlock();
+        }
+        resume(admitted);
+
+        return waiter.sink.asMono()
+                .timeout(maxWait, Mono.defer(() -> waiter.cancel()
+                        ? Mono.<Permit>error(new ShedException(ShedException.Reason.TIMEOUT))
+                        : waiter.sink.asMono()))
+                .doOnCancel(() -> {
+                    // The client went away; if the slot was granted meanwhile, give it back
+                    if (!waiter.cancel()) {
+                        waiter.permit.release();
+                    }
+                });
+    }
+
+    /**
+     * Give a slot back and admit whoever is first in line.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+        if (queued.get() > 0) {
+            List<Waiter> admitted;
+            lock.lock();
+            try {
+                admitted = drain();
+            } finally {
+                lock.unlock();
+            }
+            resume(admitted);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued(PriorityClass priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Serve the queues from the highest class down, each only while the budget is below its share.
+     * Must be called with the lock held.
+     *
+     * @return the waiters granted a slot, to be notified once the lock is released
+     */
+    private List<Waiter> drain() {
+        List<Waiter> admitted = new ArrayList<>();
+        for (PriorityClass priority : PriorityClass.values()) {
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            int threshold = thresholds.get(priority);
+            while (!queue.isEmpty() && inFlight.get() < threshold) {
+                Waiter waiter = queue.pollFirst();
+                queued.decrementAndGet();
+                waiter.permit = new Permit(System.nanoTime() - waiter.enqueuedAt);
+                inFlight.incrementAndGet();
+                if (waiter.grant()) {
+                    admitted.add(waiter);
+                } else {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Resumes admitted requests; done outside the lock because the rest of the filter chain runs on emission.
+     */
+    private static void resume(List<Waiter> admitted) {
+        for (Waiter waiter : admitted) {
+            waiter.sink.tryEmitValue(waiter.permit);
+        }
+    }
+
+    /**
+     * Take a waiter that gave up out of its queue, so it no longer holds a place there.
+     */
+    private void remove(Waiter waiter) {
+        lock.lock();
+        try {
+            if (queues.get(waiter.priority).remove(waiter)) {
+                queued.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryIncrement(int threshold) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= threshold) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A request's slot of the budget. Releasing more than once has no effect.
+     */
+    public class Permit {
+        private final long waitedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long waitedNanos) {
+            this.waitedNanos = waitedNanos;
+        }
+
+        /**
+         * @return how long the request queued for this permit
+         */
+        public long getWaitedNanos() {
+            return waitedNanos;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityAdmission.this.release();
+            }
+        }
+    }
+
+    private class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final PriorityClass priority;
+        private final long enqueuedAt;
+        private final Sinks.One<Permit> sink = Sinks.one();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        /**
+         * Set before the waiter is granted, so whoever sees it granted also sees the permit.
+         */
+        private volatile Permit permit;
+
+        Waiter(PriorityClass priority, long enqueuedAt) {
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        /**
+         * @return true if the waiter gave up before being granted a slot
+         */
+        boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                remove(this);
+                return true;
+            }
+            return state.get() == CANCELLED;
+        }
+    }
+
+    /**
+     * Signals a request that was shed instead of admitted.
+     */
+    public static class ShedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public enum Reason {
+            QUEUE_FULL("queue-full"),
+            TIMEOUT("timeout");
+
+            private final String tag;
+
+            Reason(String tag) {
+                this.tag = tag;
+            }
+
+            public String getTag() {
+                return tag;
+            }
+        }
+
+        private final Reason reason;
+
+        public ShedException(Reason reason) {
+            super("Request shed: " + reason.getTag());
+            this.reason = reason;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+    }
+}
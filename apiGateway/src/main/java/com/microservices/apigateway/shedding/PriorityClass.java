@@ -0,0 +1,38 @@
+package com.microservices.apigateway.shedding;
+
+import org.springframework.cloud.gateway.route.Route;
+
+import java.util.Locale;
+
+/**
+ * Priority of a route under load, taken from the {@code priority} entry of its metadata.
+ * Declared from most to least important; routes without the entry are {@link #INTERACTIVE}.
+ */
+public enum PriorityClass {
+    CRITICAL,
+    INTERACTIVE,
+    BULK;
+
+    public static final String METADATA_KEY = "priority";
+
+    /**
+     * @return the value of the class tag on the load shedding metrics
+     */
+    public String getTag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Find the class of a route.
+     *
+     * @param route the matched route, or null
+     * @return the class named in the route metadata, or INTERACTIVE
+     */
+    public static PriorityClass of(Route route) {
+        Object priority = route != null ? route.getMetadata().get(METADATA_KEY) : null;
+        if (priority == null) {
+            return INTERACTIVE;
+        }
+        return valueOf(priority.toString().trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,47 @@
+package com.microservices.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefuses() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(2);
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(1);
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(0);
+
+        TokenBucket.Result refused = bucket.tryConsume(0);
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterNanos()).isEqualTo(SECOND / 10);
+        assertThat(refused.resetNanos()).isEqualTo(3 * SECOND / 10);
+    }
+
+    @Test
+    void refillsAtReplenishRate() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(SECOND / 20).allowed()).isFalse();
+        assertThat(bucket.tryConsume(SECOND / 10).allowed()).isTrue();
+        assertThat(bucket.tryConsume(SECOND / 10).allowed()).isFalse();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        long later = 60 * SECOND;
+        assertThat(bucket.tryConsume(later).allowed()).isTrue();
+        assertThat(bucket.tryConsume(later).allowed()).isTrue();
+        assertThat(bucket.tryConsume(later).allowed()).isFalse();
+    }
+}
@@ -0,0 +1,102 @@
+package com.microservices.apigateway.shedding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriorityAdmissionTest {
+
+    private static final Duration LONG_WAIT = Duration.ofSeconds(5);
+
+    private LoadSheddingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoadSheddingProperties();
+        properties.setMaxInFlight(10);
+        properties.getClasses().put(PriorityClass.CRITICAL, new LoadSheddingProperties.ClassSettings(100, 10, 5000));
+        properties.getClasses().put(PriorityClass.INTERACTIVE, new LoadSheddingProperties.ClassSettings(80, 10, 5000));
+        properties.getClasses().put(PriorityClass.BULK, new LoadSheddingProperties.ClassSettings(50, 1, 5000));
+    }
+
+    @Test
+    void bulkQueuesBeyondItsShareWhileCriticalIsAdmitted() {
+        PriorityAdmission admission = new PriorityAdmission(properties);
+        List<PriorityAdmission.Permit> held = acquire(admission, PriorityClass.BULK, 5);
+
+        CompletableFuture<PriorityAdmission.Permit> bulk =
+                admission.acquire(PriorityClass.BULK, LONG_WAIT).toFuture();
+        assertThat(bulk).isNotDone();
+        assertThat(admission.getQueued(PriorityClass.BULK)).isEqualTo(1);
+
+        List<PriorityAdmission.Permit> critical = acquire(admission, PriorityClass.CRITICAL, 5);
+        assertThat(admission.getInFlight()).isEqualTo(10);
+
+        // Critical requests alone still fill bulk's share
+        held.forEach(PriorityAdmission.Permit::release);
+        assertThat(bulk).isNotDone();
+
+        critical.get(0).release();
+        assertThat(bulk).isCompleted();
+        assertThat(admission.getQueued(PriorityClass.BULK)).isZero();
+    }
+
+    @Test
+    void releasedSlotsGoToHigherClassesFirst() {
+        PriorityAdmission admission = new PriorityAdmission(properties);
+        List<PriorityAdmission.Permit> held = acquire(admission, PriorityClass.CRITICAL, 10);
+
+        CompletableFuture<PriorityAdmission.Permit> bulk =
+                admission.acquire(PriorityClass.BULK, LONG_WAIT).toFuture();
+        CompletableFuture<PriorityAdmission.Permit> critical =
+                admission.acquire(PriorityClass.CRITICAL, LONG_WAIT).toFuture();
+
+        held.get(0).release();
+        assertThat(critical).isCompleted();
+        assertThat(bulk).isNotDone();
+    }
+
+    @Test
+    void shedsWhenQueueIsFullOrWaitRunsOut() {
+        PriorityAdmission admission = new PriorityAdmission(properties);
+        acquire(admission, PriorityClass.CRITICAL, 10);
+
+        CompletableFuture<PriorityAdmission.Permit> queued =
+                admission.acquire(PriorityClass.BULK, Duration.ofMillis(50)).toFuture();
+
+        assertThatThrownBy(() -> admission.acquire(PriorityClass.BULK, LONG_WAIT).block())
+                .isInstanceOfSatisfying(PriorityAdmission.ShedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(PriorityAdmission.ShedException.Reason.QUEUE_FULL));
+        assertThat(queued).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(PriorityAdmission.ShedException.class);
+        assertThat(admission.getQueued(PriorityClass.BULK)).isZero();
+    }
+
+    @Test
+    void permitReleasesOnlyOnce() {
+        PriorityAdmission admission = new PriorityAdmission(properties);
+        PriorityAdmission.Permit permit = admission.acquire(PriorityClass.INTERACTIVE, LONG_WAIT).block();
+
+        permit.release();
+        permit.release();
+
+        assertThat(admission.getInFlight()).isZero();
+    }
+
+    private static List<PriorityAdmission.Permit> acquire(PriorityAdmission admission, PriorityClass priority,
+                                                          int count) {
+        List<PriorityAdmission.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(admission.acquire(priority, LONG_WAIT).block());
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,71 @@
+// k6 load test for the /api/auth flow, shared by every request execution mode.
+//
+//   servlet:         mvn spring-boot:run
+//   virtual threads: mvn -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual-threads
+//   reactive:        mvn -Preactive spring-boot:run -Dspring-boot.run.profiles=reactive
+//
+//   k6 run -e BASE_URL=http://localhost:8081 authservice/loadtest/auth-flow.js
+//
+// ADMIN_USER/ADMIN_PASSWORD default to the admin seeded by data.sql.
+// All logins come from one address: add -Dspring-boot.run.arguments=--app.login-throttle.enabled=false
+// to the commands above, or the login throttle refuses most of them with 429.
+// Run it once against each mode with the same VUS/DURATION and compare http_reqs/s and the
+// latency percentiles, together with /actuator/metrics/jvm.threads.live. In the virtual-threads
+// mode also watch auth.db.admission.wait and auth.db.admission.rejected.
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const PASSWORD = 'LoadTest#2024';
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+  vus: Number(__ENV.VUS || 50),
+  duration: __ENV.DURATION || '2m',
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    'http_req_duration{name:login}': ['p(95)<1500'],
+    'http_req_duration{name:refresh}': ['p(95)<300'],
+    'http_req_duration{name:availability}': ['p(95)<200'],
+  },
+};
+
+// Signup is not public, so new users are created with an admin's token.
+export function setup() {
+  const login = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({
+    username: __ENV.ADMIN_USER || 'admin',
+    password: __ENV.ADMIN_PASSWORD || 'admin123',
+  }), JSON_HEADERS);
+  if (login.status !== 200) {
+    throw new Error(`admin login failed with status ${login.status}`);
+  }
+  return { adminToken: login.json('accessToken') };
+}
+
+export default function (data) {
+  const suffix = `${exec.vu.idInTest}_${exec.scenario.iterationInTest}_${Date.now()}`;
+  const username = `lt_${suffix}`.slice(0, 20);
+  const email = `lt_${suffix}@example.com`;
+
+  const signup = http.post(`${BASE_URL}/api/auth/signup`,
+    JSON.stringify({ username, email, password: PASSWORD }), {
+      headers: { ...JSON_HEADERS.headers, Authorization: `Bearer ${data.adminToken}` },
+      tags: { name: 'signup' },
+    });
+  check(signup, { 'signup 200': (r) => r.status === 200 });
+
+  const login = http.post(`${BASE_URL}/api/auth/login`,
+    JSON.stringify({ username, password: PASSWORD }), { ...JSON_HEADERS, tags: { name: 'login' } });
+  if (!check(login, { 'login 200': (r) => r.status === 200 })) {
+    return;
+  }
+
+  const refresh = http.post(`${BASE_URL}/api/auth/refresh-token`,
+    JSON.stringify({ refreshToken: login.json('refreshToken') }), { ...JSON_HEADERS, tags: { name: 'refresh' } });
+  check(refresh, { 'refresh 200': (r) => r.status === 200 });
+
+  const availability = http.get(`${BASE_URL}/api/auth/availability?username=${username}`,
+    { tags: { name: 'availability' } });
+  check(availability, { 'availability reports taken': (r) => r.status === 200 && r.json('usernameAvailable') === false });
+}
@@ -3,11 +3,13 @@ package com.microservices.authservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableWebSecurity
+@EnableScheduling
 public class AuthserviceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,51 @@
+package com.microservices.authservice.actuator;
+
+import com.microservices.authservice.model.ERole;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.service.RoleRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint exposing the role registry at /actuator/roles.
+ * A POST reloads the roles from the database.
+ */
+@Component
+@Endpoint(id = "roles")
+public class RoleRegistryEndpoint {
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    /**
+     * List the loaded roles.
+     *
+     * @return role ids by role name
+     */
+    @ReadOperation
+    public Map<String, Long> roles() {
+        return toIds(roleRegistry.getRoles());
+    }
+
+    /**
+     * Reload the roles from the database.
+     *
+     * @return role ids by role name after the reload
+     */
+    @WriteOperation
+    public Map<String, Long> reload() {
+        return toIds(roleRegistry.reload());
+    }
+
+    private Map<String, Long> toIds(Map<ERole, Role> roles) {
+        Map<String, Long> ids = new TreeMap<>();
+        roles.forEach((name, role) -> ids.put(name.name(), role.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,83 @@
+package com.microservices.authservice.actuator;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint exposing Hibernate second-level and query cache statistics at /actuator/l2cache,
+ * per region. Counts are only collected while hibernate.generate_statistics is on.
+ * Like the other actuator endpoints except health, it is restricted to admins in {@code SecurityConfig}.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class SecondLevelCacheEndpoint {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Summarize every cache region.
+     *
+     * @return totals and per-region counters, keyed by region name
+     */
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = statistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(name, describe(statistics.getCacheRegionStatistics(name)));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        body.put("hits", statistics.getSecondLevelCacheHitCount());
+        body.put("misses", statistics.getSecondLevelCacheMissCount());
+        body.put("puts", statistics.getSecondLevelCachePutCount());
+        body.put("queryHits", statistics.getQueryCacheHitCount());
+        body.put("queryMisses", statistics.getQueryCacheMissCount());
+        body.put("regions", regions);
+        return body;
+    }
+
+    /**
+     * Describe one cache region.
+     *
+     * @param region the region name, e.g. users or roles
+     * @return the region's counters, or null if there is no such region
+     */
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        CacheRegionStatistics stats = statistics().getCacheRegionStatistics(region);
+        return stats != null ? describe(stats) : null;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Map<String, Object> describe(CacheRegionStatistics stats) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        if (stats == null) {
+            return region;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        region.put("hits", stats.getHitCount());
+        region.put("misses", stats.getMissCount());
+        region.put("puts", stats.getPutCount());
+        region.put("hitRatio", lookups > 0 ? (double) stats.getHitCount() / lookups : 0.0);
+        region.put("elementsInMemory", stats.getElementCountInMemory());
+        return region;
+    }
+}
@@ -0,0 +1,45 @@
+package com.microservices.authservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the in-process caches.
+ * Cache statistics are recorded so hit rate, load latency and evictions show up in actuator metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /**
+     * Cache of UserDetails keyed by lower-cased username.
+     */
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    @Value("${app.cache.user-details.max-size:10000}")
+    private long userDetailsMaxSize;
+
+    @Value("${app.cache.user-details.ttl:5m}")
+    private Duration userDetailsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaxSize)
+                .expireAfterWrite(userDetailsTtl)
+                .recordStats()
+                .build());
+
+        // Defer evictions made inside a transaction until it commits, so a concurrent read
+        // cannot re-cache the old row before the update is visible
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,77 @@
+package com.microservices.authservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the adaptive concurrency limits in front of the controllers.
+ * Maps application.yml properties under the 'app.concurrency-limit' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Data
+public class ConcurrencyLimitConfig {
+    /**
+     * Whether requests to /api/auth and /api/users are admitted under adaptive limits.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Factor a limit is multiplied by when a request is slower than its latency threshold or fails.
+     * Requests already in flight at the previous decrease do not decrease it again.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Value of the Retry-After header sent with rejected requests.
+     */
+    private int retryAfterSeconds = 1;
+
+    /**
+     * POST /api/auth/login.
+     */
+    private Limit login = new Limit(20, 2, 200, 1500);
+
+    /**
+     * Token refresh, validation and logout.
+     */
+    private Limit refresh = new Limit(50, 4, 500, 200);
+
+    /**
+     * GET on /api/users, plus /api/auth/me and /api/auth/availability.
+     */
+    private Limit userReads = new Limit(50, 4, 500, 500);
+
+    /**
+     * Changes to users, including signup. Bulk import and export are not limited.
+     */
+    private Limit adminWrites = new Limit(10, 1, 100, 2000);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /**
+         * Concurrent requests allowed at startup.
+         */
+        private int initialLimit;
+
+        /**
+         * The limit never drops below this.
+         */
+        private int minLimit;
+
+        /**
+         * The limit never grows beyond this.
+         */
+        private int maxLimit;
+
+        /**
+         * Requests slower than this, in milliseconds, count as a sign of overload.
+         */
+        private long latencyThresholdMs;
+    }
+}
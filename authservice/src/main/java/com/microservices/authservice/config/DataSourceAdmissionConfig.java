@@ -0,0 +1,39 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the database admission limit.
+ * Maps application.yml properties under the 'app.datasource.admission' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.admission")
+@Data
+public class DataSourceAdmissionConfig {
+    /**
+     * Whether callers need a permit before they may borrow a database connection.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Connections that may be borrowed at the same time; usually the Hikari maximum-pool-size.
+     */
+    private int maxConcurrent = 20;
+
+    /**
+     * Callers allowed to wait for a permit before new ones are rejected; 0 means no limit.
+     */
+    private int maxWaiting = 0;
+
+    /**
+     * Longest a caller waits for a permit, in milliseconds.
+     */
+    private long acquireTimeoutMs = 2000;
+
+    /**
+     * Value of the Retry-After header sent when no permit could be had.
+     */
+    private int retryAfterSeconds = 1;
+}
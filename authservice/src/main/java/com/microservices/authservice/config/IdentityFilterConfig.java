@@ -0,0 +1,39 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-memory filter of taken usernames and emails.
+ * Maps application.yml properties under the 'app.identity-filter' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.identity-filter")
+@Data
+public class IdentityFilterConfig {
+    /**
+     * When disabled every availability check goes to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of users the filter is sized for; it is resized on rebuild if the table has grown past it.
+     */
+    private int expectedInsertions = 1000000;
+
+    /**
+     * Target share of free names reported as "maybe taken", which then cost a database query.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Delay between rebuilds, in milliseconds. Rebuilding clears names of deleted or renamed users.
+     */
+    private long rebuildIntervalMs = 21600000;
+
+    /**
+     * Rows per server-side cursor fetch while scanning users.
+     */
+    private int scanFetchSize = 1000;
+}
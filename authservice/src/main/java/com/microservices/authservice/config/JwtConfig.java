@@ -26,4 +26,18 @@ public class JwtConfig {
      * Expiration time for refresh tokens in milliseconds.
      */
     private int refreshExpirationMs;
+
+    /**
+     * Build the authenticated principal from access token claims instead of loading the user
+     * from the database on every request. Tokens of deactivated users are refused through
+     * {@link com.microservices.authservice.security.services.DisabledUserRegistry}, within
+     * disabledUsersRefreshMs when the change was made on another instance. Tokens of users deleted
+     * through another instance stay valid until they expire.
+     */
+    private boolean statelessAuth;
+
+    /**
+     * How often, in milliseconds, stateless mode re-reads the disabled users.
+     */
+    private long disabledUsersRefreshMs = 30000;
 }
\ No newline at end of file
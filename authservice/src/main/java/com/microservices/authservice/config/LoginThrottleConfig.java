@@ -0,0 +1,54 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for login throttling.
+ * Maps application.yml properties under the 'app.login-throttle' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.login-throttle")
+@Data
+public class LoginThrottleConfig {
+    /**
+     * Whether login attempts are counted and throttled before passwords are checked.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Length of the sliding window attempts are counted over, in seconds.
+     */
+    private long windowSeconds = 60;
+
+    /**
+     * Attempts allowed per username within the window.
+     */
+    private int maxAttemptsPerUsername = 10;
+
+    /**
+     * Attempts allowed per client IP within the window.
+     */
+    private int maxAttemptsPerIp = 100;
+
+    /**
+     * Consecutive failed attempts tolerated before back-off starts.
+     */
+    private int failuresBeforeBackoff = 3;
+
+    /**
+     * Back-off after the first failure beyond the tolerated ones, in milliseconds; doubles with each further failure.
+     */
+    private long initialBackoffMs = 1000;
+
+    /**
+     * Longest back-off, in milliseconds.
+     */
+    private long maxBackoffMs = 900000;
+
+    /**
+     * Usernames and IPs tracked at most; the least recently used are dropped beyond this.
+     */
+    private long maxKeys = 100000;
+}
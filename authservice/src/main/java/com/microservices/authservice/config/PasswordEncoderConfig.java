@@ -0,0 +1,84 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for password encoding.
+ * Maps application.yml properties under the 'app.password-encoder' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.password-encoder")
+@Data
+public class PasswordEncoderConfig {
+    /**
+     * Id of the algorithm new hashes are created with: bcrypt, pbkdf2, argon2 or scrypt.
+     */
+    private String encodingId = "bcrypt";
+
+    /**
+     * Rehash a password in the background after a successful login when its stored hash
+     * uses another algorithm or a lower cost than configured.
+     */
+    private boolean upgradeOnLogin = true;
+
+    private Bcrypt bcrypt = new Bcrypt();
+
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+
+    private Argon2 argon2 = new Argon2();
+
+    private Scrypt scrypt = new Scrypt();
+
+    private Benchmark benchmark = new Benchmark();
+
+    @Data
+    public static class Bcrypt {
+        /**
+         * Log2 of the number of hashing rounds.
+         */
+        private int strength = 10;
+    }
+
+    @Data
+    public static class Pbkdf2 {
+        private int saltLength = 16;
+        private int iterations = 310000;
+    }
+
+    @Data
+    public static class Argon2 {
+        private int saltLength = 16;
+        private int hashLength = 32;
+        private int parallelism = 1;
+
+        /**
+         * Memory cost in KiB.
+         */
+        private int memory = 16384;
+        private int iterations = 2;
+    }
+
+    @Data
+    public static class Scrypt {
+        private int cpuCost = 65536;
+        private int memoryCost = 8;
+        private int parallelization = 1;
+        private int keyLength = 32;
+        private int saltLength = 16;
+    }
+
+    @Data
+    public static class Benchmark {
+        /**
+         * Measure every configured encoder at startup and log the achievable hash rate.
+         */
+        private boolean enabled;
+
+        /**
+         * Hash operations measured per encoder.
+         */
+        private int iterations = 20;
+    }
+}
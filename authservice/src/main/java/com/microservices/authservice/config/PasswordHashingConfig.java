@@ -0,0 +1,34 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the password hashing executor.
+ * Maps application.yml properties under the 'app.password-hashing' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.password-hashing")
+@Data
+public class PasswordHashingConfig {
+    /**
+     * Number of hashing threads; 0 means one per available processor.
+     */
+    private int threads;
+
+    /**
+     * Hash operations allowed to wait for a thread before new ones are rejected.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Longest a caller waits for its hash to complete, in milliseconds.
+     */
+    private long timeoutMs = 5000;
+
+    /**
+     * Value of the Retry-After header sent when hashing capacity is exhausted.
+     */
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,40 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the refresh token store.
+ * Maps application.yml properties under the 'app.refresh-token.store' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.refresh-token.store")
+@Data
+public class RefreshTokenStoreConfig {
+    /**
+     * Store implementation: jpa reads and writes MySQL directly, memory serves lookups from
+     * this instance's memory and writes new tokens to MySQL in the background.
+     */
+    private String type = "jpa";
+
+    /**
+     * Number of lock stripes guarding per-user updates of the in-memory store.
+     */
+    private int stripes = 64;
+
+    /**
+     * Delay between background flushes of new tokens to the database, in milliseconds.
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * Tokens written per batch statement; reaching this many pending tokens also triggers a flush.
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * Delay between sweeps that drop expired tokens from memory, in milliseconds.
+     */
+    private long evictionIntervalMs = 60000;
+}
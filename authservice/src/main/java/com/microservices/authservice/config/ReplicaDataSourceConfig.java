@@ -0,0 +1,56 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the read replica.
+ * Maps application.yml properties under the 'app.datasource.replica' prefix to this class.
+ * Pool settings for the replica go under 'app.datasource.replica.hikari'.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Data
+public class ReplicaDataSourceConfig {
+    /**
+     * Whether read-only transactions are sent to the replica. When off, everything uses spring.datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the replica.
+     */
+    private String url;
+
+    /**
+     * Replica user; defaults to spring.datasource.username.
+     */
+    private String username;
+
+    /**
+     * Replica password; defaults to spring.datasource.password.
+     */
+    private String password;
+
+    /**
+     * Largest replication delay, in seconds, at which reads still go to the replica.
+     * Beyond it, or while the delay is unknown, reads fall back to the primary.
+     */
+    private long maxLagSeconds = 2;
+
+    /**
+     * Delay between replication lag checks, in milliseconds.
+     */
+    private long lagCheckIntervalMs = 1000;
+
+    /**
+     * Statement returning the replication status row on the replica.
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    /**
+     * Column of the status row holding the delay in seconds.
+     */
+    private String lagColumn = "Seconds_Behind_Source";
+}
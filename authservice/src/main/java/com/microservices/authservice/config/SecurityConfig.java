@@ -1,11 +1,17 @@
 package com.microservices.authservice.config;
 
+import com.microservices.authservice.security.crypto.BoundedPasswordEncoder;
+import com.microservices.authservice.security.crypto.PasswordEncoders;
+import com.microservices.authservice.security.crypto.PasswordHashingExecutor;
 import com.microservices.authservice.security.jwt.AuthTokenFilter;
 import com.microservices.authservice.security.jwt.JwtAuthEntryPoint;
 import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -14,7 +20,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,6 +31,7 @@ import java.util.Arrays;
 
 /**
  * Configuration class for Spring Security settings.
+ * The filter chain applies to the servlet stack; the reactive build brings its own.
  */
 @Configuration
 //@EnableWebSecurity
@@ -37,6 +43,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthEntryPoint unauthorizedHandler;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private PasswordEncoderConfig passwordEncoderConfig;
+
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
@@ -56,13 +68,15 @@ public class SecurityConfig {
 
 
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        // Hash on a dedicated bounded pool so login storms cannot starve request threads
+        return new BoundedPasswordEncoder(PasswordEncoders.delegating(passwordEncoderConfig), passwordHashingExecutor);
     }
 
 
@@ -83,6 +97,7 @@ public class SecurityConfig {
 
 
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
@@ -90,7 +105,17 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
-                        auth.requestMatchers("/api/auth/login","/tool","/learn-more").permitAll()
+                        auth.requestMatchers("/api/auth/login","/api/auth/availability","/tool","/learn-more").permitAll()
+                                   // Streamed responses finish on an async dispatch; the request was authorized already
+                                   .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                   // Method security is off, so @PreAuthorize alone does not protect admin-only endpoints
+                                   .requestMatchers("/api/users/search", "/api/users/export", "/api/users/import",
+                                           "/api/users/batch/**").hasRole("ADMIN")
+                                   .requestMatchers(HttpMethod.GET, "/api/users").hasRole("ADMIN")
+                                   .requestMatchers(HttpMethod.DELETE, "/api/users/*").hasRole("ADMIN")
+                                   // Actuator endpoints can reload roles and clear caches; only health is open to any user
+                                   .requestMatchers("/actuator/health/**").authenticated()
+                                   .requestMatchers("/actuator/**").hasRole("ADMIN")
                                    .anyRequest().authenticated()
                 );
 
@@ -0,0 +1,58 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for hash-sharded user storage.
+ * Maps application.yml properties under the 'app.sharding' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.sharding")
+@Data
+public class ShardingConfig {
+    /**
+     * Whether users, their roles and refresh tokens are spread over the shards below.
+     * When off, everything uses spring.datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The shard databases, in order. A user's shard is a hash of their ID modulo the number of shards,
+     * so the list must not be reordered or resized once it holds data.
+     * Shard 0 also holds the user directory and every unsharded table.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Threads used to query shards in parallel; 0 means one per shard.
+     */
+    private int fanOutThreads = 0;
+
+    /**
+     * Connection pool size of each shard.
+     */
+    private int maxPoolSize = 10;
+
+    @Data
+    public static class Shard {
+        /**
+         * JDBC URL of the shard.
+         */
+        private String url;
+
+        /**
+         * Shard user; defaults to spring.datasource.username.
+         */
+        private String username;
+
+        /**
+         * Shard password; defaults to spring.datasource.password.
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,85 @@
+package com.microservices.authservice.config;
+
+import com.microservices.authservice.sharding.ShardRoutingDataSource;
+import com.microservices.authservice.sharding.UserDirectory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads users over several databases by a hash of their ID.
+ * <p>
+ * The application DataSource routes each connection to the shard selected by
+ * {@link com.microservices.authservice.sharding.Shards}, falling back to shard 0 for unsharded tables.
+ * It is a lazy proxy, so a transaction only takes a connection at its first statement, once the repository
+ * call has picked the shard. Each shard has its own pool, reported to metrics as "shard-0", "shard-1", ...
+ * <p>
+ * Every shard must have the same schema and role rows; Hibernate only manages the schema of shard 0.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ShardingDataSourceConfig.class);
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingConfig config, DataSourceProperties properties,
+                                                         Environment environment, MeterRegistry meterRegistry) {
+        if (environment.getProperty("app.datasource.replica.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("app.sharding and app.datasource.replica cannot be enabled together");
+        }
+        if ("memory".equals(environment.getProperty("app.refresh-token.store.type"))) {
+            throw new IllegalStateException("app.sharding requires the jpa refresh token store");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < config.getShards().size(); i++) {
+            ShardingConfig.Shard shard = config.getShards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : properties.determineUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : properties.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(config.getMaxPoolSize());
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public UserDirectory userDirectory(ShardRoutingDataSource shardRoutingDataSource, ShardingConfig config) {
+        UserDirectory userDirectory = new UserDirectory(shardRoutingDataSource.getShard(0));
+        userDirectory.createTable();
+
+        // Register users created before sharding was switched on, or by an earlier node
+        int shardCount = config.getShards().size();
+        for (int i = 0; i < shardCount; i++) {
+            userDirectory.backfill(shardRoutingDataSource.getShard(i));
+        }
+        logger.info("User directory ready on {} shards", shardCount);
+        return userDirectory;
+    }
+}
@@ -0,0 +1,74 @@
+package com.microservices.authservice.config;
+
+import com.microservices.authservice.datasource.StreamingQueryExecutor;
+import com.microservices.authservice.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separate connection pool for full-table scans, configured under 'app.datasource.streaming.hikari'.
+ * <p>
+ * It points at the primary, or with sharding enabled holds one pool per shard routed like the application
+ * DataSource. Driver properties that only suit long scans, such as MySQL's useCursorFetch, go in its
+ * data-source-properties instead of the shared JDBC URL. Pools are reported to metrics as "streaming",
+ * or "shard-0-streaming", "shard-1-streaming", ...
+ */
+@Configuration
+public class StreamingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("app.datasource.streaming.hikari")
+    public HikariConfig streamingPoolConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public StreamingQueryExecutor streamingQueryExecutor(@Qualifier("streamingPoolConfig") HikariConfig poolConfig,
+                                                         DataSourceProperties properties, ShardingConfig sharding,
+                                                         MeterRegistry meterRegistry) {
+        if (!sharding.isEnabled()) {
+            return new StreamingQueryExecutor(pool(poolConfig, "streaming", properties.determineUrl(),
+                    properties.determineUsername(), properties.determinePassword(), properties, meterRegistry));
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < sharding.getShards().size(); i++) {
+            ShardingConfig.Shard shard = sharding.getShards().get(i);
+            shards.add(pool(poolConfig, "shard-" + i + "-streaming", shard.getUrl(),
+                    shard.getUsername() != null ? shard.getUsername() : properties.determineUsername(),
+                    shard.getPassword() != null ? shard.getPassword() : properties.determinePassword(),
+                    properties, meterRegistry));
+        }
+        return new StreamingQueryExecutor(new ShardRoutingDataSource(shards));
+    }
+
+    /**
+     * Build a pool from the shared settings. It connects on first use, so an unused scan pool holds no connections.
+     */
+    private static HikariDataSource pool(HikariConfig poolConfig, String name, String url, String username,
+                                         String password, DataSourceProperties properties,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        poolConfig.copyStateTo(dataSource);
+        dataSource.setDataSourceProperties(poolConfig.getDataSourceProperties());
+        dataSource.setPoolName(name);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
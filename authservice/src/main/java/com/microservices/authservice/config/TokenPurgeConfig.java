@@ -0,0 +1,40 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the expired refresh token purge job.
+ * Maps application.yml properties under the 'app.refresh-token.purge' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.refresh-token.purge")
+@Data
+public class TokenPurgeConfig {
+    /**
+     * Whether the purge job runs on this instance.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between the end of one run and the start of the next, in milliseconds.
+     */
+    private long intervalMs = 600000;
+
+    /**
+     * Expired tokens deleted per statement.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Pause between batches, in milliseconds, so purging never competes with logins for long.
+     */
+    private long pauseMs = 100;
+
+    /**
+     * How long a run may hold the purge lease before another instance can take over, in milliseconds.
+     * A run stops early rather than outlive its lease.
+     */
+    private long leaseMs = 300000;
+}
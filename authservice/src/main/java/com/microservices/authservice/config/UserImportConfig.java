@@ -0,0 +1,29 @@
+package com.microservices.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for bulk user import.
+ * Maps application.yml properties under the 'app.users.import' prefix to this class.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.users.import")
+@Data
+public class UserImportConfig {
+    /**
+     * Rows validated, hashed and inserted together; each chunk commits in its own transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Threads hashing passwords for imports; 0 means one per available processor.
+     */
+    private int hashThreads;
+
+    /**
+     * Rows read from one import; rows beyond this are not processed.
+     */
+    private int maxRows = 200000;
+}
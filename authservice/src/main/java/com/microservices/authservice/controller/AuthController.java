@@ -3,12 +3,15 @@ package com.microservices.authservice.controller;
 import com.microservices.authservice.dto.request.LoginRequest;
 import com.microservices.authservice.dto.request.RefreshTokenRequest;
 import com.microservices.authservice.dto.request.SignupRequest;
+import com.microservices.authservice.dto.response.AvailabilityResponse;
 import com.microservices.authservice.dto.response.JwtResponse;
 import com.microservices.authservice.dto.response.MessageResponse;
 import com.microservices.authservice.security.services.UserDetailsImpl;
 import com.microservices.authservice.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,6 +23,7 @@ import java.util.Map;
  * REST controller for authentication operations.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/auth")
 public class AuthController {
 
@@ -30,11 +34,13 @@ public class AuthController {
      * Authenticate a user and generate JWT tokens.
      *
      * @param loginRequest login credentials
+     * @param request the HTTP request, for the client address
      * @return JWT response with tokens and user info
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        return ResponseEntity.ok(authService.authenticateUser(loginRequest));
+    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                        HttpServletRequest request) {
+        return ResponseEntity.ok(authService.authenticateUser(loginRequest, request.getRemoteAddr()));
     }
 
     /**
@@ -48,6 +54,20 @@ public class AuthController {
         return ResponseEntity.ok(authService.registerUser(signupRequest));
     }
 
+    /**
+     * Check whether a username and/or email is still available for signup.
+     *
+     * @param username the username to check (optional)
+     * @param email the email to check (optional)
+     * @return availability of each value given
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
+
     /**
      * Refresh an access token using a refresh token.
      *
@@ -67,7 +87,7 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<MessageResponse> logoutUser() {
         UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return ResponseEntity.ok(authService.logoutUser(userDetails.getId()));
+        return ResponseEntity.ok(authService.logoutUser(userDetails.getId(), userDetails.getUsername()));
     }
 
 
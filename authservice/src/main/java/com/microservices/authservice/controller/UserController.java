@@ -1,36 +1,191 @@
 package com.microservices.authservice.controller;
 
+import com.microservices.authservice.dto.request.UserBatchRequest;
+import com.microservices.authservice.dto.request.UserRoleBatchRequest;
 import com.microservices.authservice.dto.request.UserUpdateRequest;
 import com.microservices.authservice.dto.response.MessageResponse;
+import com.microservices.authservice.dto.response.UserBatchResponse;
+import com.microservices.authservice.dto.response.UserImportResponse;
+import com.microservices.authservice.dto.response.UserPageResponse;
 import com.microservices.authservice.dto.response.UserResponse;
+import com.microservices.authservice.dto.response.UserSearchResponse;
+import com.microservices.authservice.service.UserBatchService;
+import com.microservices.authservice.service.UserExportService;
+import com.microservices.authservice.service.UserImportService;
 import com.microservices.authservice.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * REST controller for user management operations.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("api/users")
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserBatchService userBatchService;
+
     /**
-     * Get all users (admin only).
+     * Get a page of users (admin only). Pages are keyed on user ID: pass the returned
+     * nextCursor as 'after' to fetch the following page.
      *
-     * @return list of all users
+     * @param after return users with a greater ID; omit for the first page
+     * @param size page size, capped at the configured maximum
+     * @param role optional role filter, e.g. admin or user
+     * @param usernamePrefix optional username prefix filter
+     * @return one page of users
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<UserPageResponse> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String usernamePrefix) {
+        return ResponseEntity.ok(userService.getUsers(after, size, role, usernamePrefix));
+    }
+
+    /**
+     * Search users by username or email prefix, ignoring case (admin only).
+     * Suited to type-ahead: matching is done in memory and only the hits are loaded.
+     *
+     * @param q the prefix to match
+     * @param field username (default) or email
+     * @param after the nextCursor of the previous page; omit for the first page
+     * @param limit the maximum number of users, capped at the configured maximum
+     * @return the matching users, ordered by the searched field
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserSearchResponse> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "username") String field,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, field, after, limit));
+    }
+
+    /**
+     * Export all users and their roles (admin only). The body is streamed while rows are read,
+     * so the export size is not limited by memory.
+     *
+     * @param format ndjson (default) or csv
+     * @return the streamed export
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        UserExportService.Format exportFormat = UserExportService.Format.of(format);
+
+        StreamingResponseBody body = out -> userExportService.export(exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Create users in bulk (admin only). The body is a JSON array or newline-delimited JSON objects
+     * with the same fields as signup, read as a stream.
+     *
+     * @param request the HTTP request carrying the import document
+     * @return a per-row report
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResponse> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream()));
+    }
+
+    /**
+     * Create users in bulk from an uploaded file (admin only), in the same format as {@link #importUsers}.
+     *
+     * @param file the uploaded import document
+     * @return a per-row report
+     * @throws IOException if the file cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResponse> importUsersFile(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(userImportService.importUsers(in));
+        }
+    }
+
+    /**
+     * Replace the roles of many users (admin only).
+     *
+     * @param request the user IDs and the new roles
+     * @return how many users were updated
+     */
+    @PutMapping("/batch/roles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResponse> assignRoles(@Valid @RequestBody UserRoleBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.assignRoles(request.getIds(), request.getRoles()));
+    }
+
+    /**
+     * Disable many users and revoke their refresh tokens (admin only).
+     *
+     * @param request the user IDs
+     * @return how many users were disabled
+     */
+    @PostMapping("/batch/deactivate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResponse> deactivateUsers(@Valid @RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.setEnabled(request.getIds(), false));
+    }
+
+    /**
+     * Re-enable many users (admin only).
+     *
+     * @param request the user IDs
+     * @return how many users were enabled
+     */
+    @PostMapping("/batch/activate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResponse> activateUsers(@Valid @RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.setEnabled(request.getIds(), true));
+    }
+
+    /**
+     * Delete many users with their roles and refresh tokens (admin only).
+     *
+     * @param request the user IDs
+     * @return how many users were deleted
+     */
+    @PostMapping("/batch/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserBatchResponse> deleteUsers(@Valid @RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userBatchService.deleteUsers(request.getIds()));
     }
 
     /**
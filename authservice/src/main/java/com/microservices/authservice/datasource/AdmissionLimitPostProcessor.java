@@ -0,0 +1,38 @@
+package com.microservices.authservice.datasource;
+
+import com.microservices.authservice.config.DataSourceAdmissionConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts the application DataSource behind an {@link AdmissionLimitedDataSource}. Only the bean named
+ * {@code dataSource} is wrapped, which is the plain pool, the replica router or the shard router depending on
+ * configuration, so the limit applies once to all database work however the connections are routed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.admission", name = "enabled", havingValue = "true")
+public class AdmissionLimitPostProcessor implements BeanPostProcessor {
+
+    // Looked up lazily; resolving them while post-processors are being registered would initialize them too early
+    private final ObjectProvider<DataSourceAdmissionConfig> config;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public AdmissionLimitPostProcessor(ObjectProvider<DataSourceAdmissionConfig> config,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return new AdmissionLimitedDataSource(dataSource, config.getObject(), meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,149 @@
+package com.microservices.authservice.datasource;
+
+import com.microservices.authservice.config.DataSourceAdmissionConfig;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of connections borrowed at once with a fair semaphore, ahead of the pool.
+ * <p>
+ * With request handling on virtual threads, concurrency is no longer bounded by a thread pool, and thousands of
+ * callers would otherwise queue inside Hikari until its connection timeout. Here they queue on the semaphore
+ * instead, for at most {@code acquire-timeout-ms}, and beyond {@code max-waiting} are turned away at once with
+ * {@link ServiceOverloadedException}. The pool can then be sized for what MySQL handles well rather than for the
+ * number of concurrent requests. A permit is held from {@code getConnection} until the connection is closed.
+ */
+public class AdmissionLimitedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutMs;
+    private final long retryAfterSeconds;
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public AdmissionLimitedDataSource(DataSource target, DataSourceAdmissionConfig config, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(config.getMaxConcurrent(), true);
+        this.maxWaiting = config.getMaxWaiting();
+        this.acquireTimeoutMs = config.getAcquireTimeoutMs();
+        this.retryAfterSeconds = config.getRetryAfterSeconds();
+
+        this.waitTimer = Timer.builder("auth.db.admission.wait")
+                .description("Time callers wait for permission to borrow a database connection")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.db.admission.rejected")
+                .description("Connection requests turned away because the database was at capacity")
+                .register(meterRegistry);
+        Gauge.builder("auth.db.admission.active", permits, p -> config.getMaxConcurrent() - p.availablePermits())
+                .description("Connections currently borrowed under the admission limit")
+                .register(meterRegistry);
+        Gauge.builder("auth.db.admission.waiting", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for permission to borrow a database connection")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the wrapped pool, which as a bean is now only reachable through this wrapper.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (maxWaiting > 0 && permits.getQueueLength() >= maxWaiting) {
+            throw rejected();
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw rejected();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Hands the permit back when the connection is closed; closing twice releases once.
+     */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private ServiceOverloadedException rejected() {
+        rejectedCounter.increment();
+        return new ServiceOverloadedException("The database is at capacity, please retry later", retryAfterSeconds);
+    }
+}
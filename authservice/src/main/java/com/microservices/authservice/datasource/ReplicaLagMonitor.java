@@ -0,0 +1,86 @@
+package com.microservices.authservice.datasource;
+
+import com.microservices.authservice.config.ReplicaDataSourceConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Polls the replica for its replication delay and decides whether reads may go to it.
+ * The replica is unusable until the first successful check, and whenever the delay is unknown
+ * (replication stopped, replica unreachable) or above the configured tolerance.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final ReplicaDataSourceConfig config;
+
+    private volatile boolean usable;
+
+    /**
+     * Last observed delay in seconds, or -1 if unknown.
+     */
+    private volatile long lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaDataSourceConfig config, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.config = config;
+
+        Gauge.builder("auth.datasource.replica.lag", this, monitor -> monitor.lagSeconds >= 0 ? monitor.lagSeconds : Double.NaN)
+                .description("Replication delay of the read replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("auth.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are currently sent to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        long lag = readLag();
+        boolean nowUsable = lag >= 0 && lag <= config.getMaxLagSeconds();
+
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                logger.info("Sending reads to the replica (lag {}s)", lag);
+            } else {
+                logger.warn("Sending reads to the primary; replica lag is {}",
+                        lag >= 0 ? lag + "s" : "unknown");
+            }
+        }
+        lagSeconds = lag;
+        usable = nowUsable;
+    }
+
+    /**
+     * @return true if read-only work may use the replica
+     */
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    private long readLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(config.getLagQuery())) {
+            if (!rs.next()) {
+                // Not configured as a replica
+                return -1;
+            }
+            long lag = rs.getLong(config.getLagColumn());
+            return rs.wasNull() ? -1 : lag;
+        } catch (SQLException e) {
+            logger.debug("Replica lag check failed", e);
+            return -1;
+        }
+    }
+}
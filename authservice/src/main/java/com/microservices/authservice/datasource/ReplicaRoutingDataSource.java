@@ -0,0 +1,59 @@
+package com.microservices.authservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Source of connections for read-only work: the replica while it is usable, the primary otherwise.
+ * Used as the read-only DataSource of a LazyConnectionDataSourceProxy, which only asks for a
+ * connection once the transaction has marked it read-only and the first statement runs.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource replica;
+    private final DataSource primary;
+    private final BooleanSupplier replicaUsable;
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary, BooleanSupplier replicaUsable,
+                                    MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.primary = primary;
+        this.replicaUsable = replicaUsable;
+
+        this.replicaReads = Counter.builder("auth.datasource.reads")
+                .description("Read-only connections by the pool that served them")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("auth.datasource.reads")
+                .description("Read-only connections by the pool that served them")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        if (replicaUsable.getAsBoolean()) {
+            replicaReads.increment();
+            return replica;
+        }
+        primaryReads.increment();
+        return primary;
+    }
+}
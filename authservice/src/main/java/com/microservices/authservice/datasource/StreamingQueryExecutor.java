@@ -0,0 +1,70 @@
+package com.microservices.authservice.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs full-table scans (user export, search index and identity filter loads) on a pool of their own.
+ * <p>
+ * That pool is opened with the driver properties under app.datasource.streaming.hikari, which for MySQL
+ * include useCursorFetch: a forward-only, read-only statement with a fetch size then reads through a
+ * server-side cursor, one fetch-size chunk at a time. The application pool keeps the driver defaults,
+ * so ordinary queries are not switched to server-side prepared statements and cursors.
+ * <p>
+ * Deliberately not a DataSource or JdbcTemplate bean, which would displace the auto-configured ones.
+ */
+public class StreamingQueryExecutor implements AutoCloseable {
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public StreamingQueryExecutor(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Stream the rows of a query to a handler.
+     *
+     * @param sql the query
+     * @param fetchSize the number of rows fetched per round trip
+     * @param handler called for every row
+     */
+    public void query(String sql, int fetchSize, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> prepare(connection, sql, fetchSize), handler);
+    }
+
+    /**
+     * Stream the rows of a query to an extractor that walks the result set itself.
+     *
+     * @param sql the query
+     * @param fetchSize the number of rows fetched per round trip
+     * @param extractor reads the result set
+     * @return the extractor's result
+     */
+    public <T> T query(String sql, int fetchSize, ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(connection -> prepare(connection, sql, fetchSize), extractor);
+    }
+
+    /**
+     * Close the scan pools; they are not beans of their own.
+     */
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize);
+        return ps;
+    }
+}
@@ -0,0 +1,18 @@
+package com.microservices.authservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for operations applied to many users at once.
+ */
+@Data
+public class UserBatchRequest {
+    /**
+     * IDs of the users to apply the operation to.
+     */
+    @NotEmpty(message = "At least one user ID is required")
+    private List<Long> ids;
+}
@@ -0,0 +1,25 @@
+package com.microservices.authservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data Transfer Object for replacing the roles of many users at once.
+ */
+@Data
+public class UserRoleBatchRequest {
+    /**
+     * IDs of the users whose roles are replaced.
+     */
+    @NotEmpty(message = "At least one user ID is required")
+    private List<Long> ids;
+
+    /**
+     * The new roles, "admin" and/or "user".
+     */
+    @NotEmpty(message = "At least one role is required")
+    private Set<String> roles;
+}
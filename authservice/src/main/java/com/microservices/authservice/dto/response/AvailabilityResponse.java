@@ -0,0 +1,32 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for username and email availability checks.
+ * Fields for a value that was not asked about are null.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilityResponse {
+    /**
+     * Username that was checked.
+     */
+    private String username;
+
+    /**
+     * Whether the username can be registered.
+     */
+    private Boolean usernameAvailable;
+
+    /**
+     * Email that was checked.
+     */
+    private String email;
+
+    /**
+     * Whether the email can be registered.
+     */
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,26 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for the result of a batch user operation.
+ */
+@Data
+@AllArgsConstructor
+public class UserBatchResponse {
+    /**
+     * Distinct user IDs in the request.
+     */
+    private int requested;
+
+    /**
+     * Users the operation changed; IDs that do not exist or needed no change are not counted.
+     */
+    private int affected;
+
+    /**
+     * Refresh tokens deleted as part of the operation.
+     */
+    private int refreshTokensRevoked;
+}
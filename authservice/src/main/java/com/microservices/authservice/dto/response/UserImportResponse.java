@@ -0,0 +1,39 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the report of a bulk user import.
+ */
+@Data
+@AllArgsConstructor
+public class UserImportResponse {
+    /**
+     * Rows read from the import.
+     */
+    private int total;
+
+    /**
+     * Users created.
+     */
+    private int created;
+
+    /**
+     * Rows that were rejected.
+     */
+    private int failed;
+
+    /**
+     * False if reading stopped early because of malformed input or the row limit;
+     * rows before that point were still processed.
+     */
+    private boolean complete;
+
+    /**
+     * Outcome of every row, in input order.
+     */
+    private List<UserImportResult> results;
+}
@@ -0,0 +1,47 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for the outcome of one row of a bulk user import.
+ */
+@Data
+@AllArgsConstructor
+public class UserImportResult {
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    /**
+     * Zero-based position of the row in the import.
+     */
+    private int index;
+
+    /**
+     * Username from the row, if present.
+     */
+    private String username;
+
+    /**
+     * CREATED or FAILED.
+     */
+    private String status;
+
+    /**
+     * ID of the created user, or null if the row failed.
+     */
+    private Long id;
+
+    /**
+     * Why the row failed, or null if it was created.
+     */
+    private String message;
+
+    public static UserImportResult created(int index, String username, Long id) {
+        return new UserImportResult(index, username, CREATED, id, null);
+    }
+
+    public static UserImportResult failed(int index, String username, String message) {
+        return new UserImportResult(index, username, FAILED, null, message);
+    }
+}
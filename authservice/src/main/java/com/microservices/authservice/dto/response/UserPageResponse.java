@@ -0,0 +1,28 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a user listing.
+ */
+@Data
+@AllArgsConstructor
+public class UserPageResponse {
+    /**
+     * Users on this page, in ascending ID order.
+     */
+    private List<UserResponse> users;
+
+    /**
+     * Value to pass as 'after' to fetch the next page, or null if this is the last page.
+     */
+    private Long nextCursor;
+
+    /**
+     * Page size that was applied.
+     */
+    private int size;
+}
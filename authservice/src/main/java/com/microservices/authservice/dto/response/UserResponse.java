@@ -45,6 +45,21 @@ public class UserResponse {
         this.roles = mapRolesToStrings(user.getRoles());
     }
 
+    /**
+     * Create a UserResponse from already loaded values.
+     *
+     * @param id the user ID
+     * @param username the username
+     * @param email the user email
+     * @param roles the role names
+     */
+    public UserResponse(Long id, String username, String email, List<String> roles) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.roles = roles;
+    }
+
     /**
      * Map role entities to role name strings.
      *
@@ -0,0 +1,23 @@
+package com.microservices.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a user prefix search.
+ */
+@Data
+@AllArgsConstructor
+public class UserSearchResponse {
+    /**
+     * Matching users, ordered by the searched field.
+     */
+    private List<UserResponse> users;
+
+    /**
+     * Value to pass as 'after' to fetch the next page, or null if there are no more matches.
+     */
+    private String nextCursor;
+}
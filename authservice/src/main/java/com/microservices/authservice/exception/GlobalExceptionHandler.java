@@ -1,11 +1,15 @@
 package com.microservices.authservice.exception;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -22,6 +26,7 @@ import java.util.Map;
  * Handles various exceptions and returns appropriate responses.
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     /**
@@ -116,6 +121,32 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle unique constraint violations, e.g. a username taken between the availability check and the insert.
+     * Other integrity violations are not the caller's naming conflict and are handled as any other error.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, WebRequest request) {
+
+        if (!UniqueKeyViolations.isUniqueKeyViolation(ex)) {
+            return handleGlobalException(ex, request);
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "Username or email is already in use");
+        body.put("path", request.getDescription(false));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handle bad credentials exceptions.
      *
@@ -137,6 +168,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.UNAUTHORIZED);
     }
 
+    /**
+     * Handle logins to disabled accounts.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(DisabledException.class)
+    public ResponseEntity<Object> handleDisabledException(
+            DisabledException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.FORBIDDEN.value());
+        body.put("error", "Forbidden");
+        body.put("message", "Account is disabled");
+        body.put("path", request.getDescription(false));
+
+        return new ResponseEntity<>(body, HttpStatus.FORBIDDEN);
+    }
+
     /**
      * Handle access denied exceptions.
      *
@@ -158,6 +210,74 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Handle requests shed because the service is at capacity.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Object> handleServiceOverloadedException(
+            ServiceOverloadedException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+        return new ResponseEntity<>(body, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handle login attempts refused by the login throttle.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Object> handleLoginThrottledException(
+            LoginThrottledException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+        return new ResponseEntity<>(body, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Handle failures to begin a transaction. The transaction manager wraps whatever the connection
+     * request threw, so a caller turned away by the database admission limit is unwrapped into a 503.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Object> handleCannotCreateTransactionException(
+            CannotCreateTransactionException ex, WebRequest request) {
+
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceOverloadedException overloaded) {
+                return handleServiceOverloadedException(overloaded, request);
+            }
+        }
+        return handleGlobalException(ex, request);
+    }
+
     /**
      * Handle all other exceptions.
      *
@@ -0,0 +1,48 @@
+package com.microservices.authservice.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+
+/**
+ * Tells unique-key violations apart from other integrity errors (foreign keys, NOT NULL, column length),
+ * which share {@link DataIntegrityViolationException} but do not mean a name is taken.
+ */
+public final class UniqueKeyViolations {
+
+    /**
+     * Standard SQLState for a unique violation (H2, PostgreSQL). MySQL reports 23000 for every integrity error.
+     */
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /**
+     * MySQL error code for a duplicate entry in a unique index.
+     */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    private UniqueKeyViolations() {
+    }
+
+    /**
+     * JDBC and R2DBC translate duplicate keys to {@link DuplicateKeyException}; through JPA, Hibernate's
+     * exception is translated to a plain {@link DataIntegrityViolationException}, so the driver's
+     * exception in the cause chain decides.
+     *
+     * @param ex the integrity violation
+     * @return whether it was caused by a unique key
+     */
+    public static boolean isUniqueKeyViolation(DataIntegrityViolationException ex) {
+        if (ex instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && (UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())
+                    || sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.microservices.authservice.limit;
+
+import com.microservices.authservice.config.ConcurrencyLimitConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to measured latency: additive increase, multiplicative decrease.
+ * <p>
+ * Every request that finishes within the latency threshold while the limit is at least half used
+ * raises the limit by one; a request that is slower or fails multiplies it by the backoff ratio, unless
+ * it was already in flight at the previous decrease. A latency spike seen by many concurrent requests
+ * therefore shrinks the limit once rather than once per request. When MySQL slows down the limit shrinks
+ * toward the concurrency the database can still serve quickly, and excess requests are turned away at
+ * once instead of queueing until they time out.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AimdLimiter(ConcurrencyLimitConfig.Limit config, double backoffRatio) {
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLatencyThresholdMs());
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+    }
+
+    /**
+     * Take a slot if the limit allows it. Every successful call must be followed by {@link #release}.
+     *
+     * @return true if the request may proceed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give a slot back and adjust the limit from how the request went.
+     *
+     * @param startedAtNanos {@link System#nanoTime()} when the request was admitted
+     * @param finishedAtNanos {@link System#nanoTime()} when it completed
+     * @param failed whether the request failed in a way that suggests overload
+     */
+    public void release(long startedAtNanos, long finishedAtNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || finishedAtNanos - startedAtNanos > latencyThresholdNanos) {
+                // Requests admitted before the last decrease saw the same overload; it was acted on already
+                if (!decreased || startedAtNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, (int) (limit * backoffRatio));
+                    lastDecreaseNanos = finishedAtNanos;
+                    decreased = true;
+                }
+            } else if (current * 2 >= limit) {
+                // Only grow while the limit is actually being used, or it drifts up unchecked when idle
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
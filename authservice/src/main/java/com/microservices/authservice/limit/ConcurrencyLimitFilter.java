@@ -0,0 +1,110 @@
+package com.microservices.authservice.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.authservice.config.ConcurrencyLimitConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admits requests to {@code AuthController} and {@code UserController} under one {@link AimdLimiter}
+ * per {@link EndpointClass}. Requests over the limit get a 503 with Retry-After straight away.
+ * <p>
+ * Runs ahead of the security filter chain (order 10), so the user lookup done while
+ * authenticating a token is inside the limit as well.
+ */
+@Component
+@Order(5)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Map<EndpointClass, AimdLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        limiters.put(EndpointClass.LOGIN, new AimdLimiter(config.getLogin(), config.getBackoffRatio()));
+        limiters.put(EndpointClass.REFRESH, new AimdLimiter(config.getRefresh(), config.getBackoffRatio()));
+        limiters.put(EndpointClass.USER_READS, new AimdLimiter(config.getUserReads(), config.getBackoffRatio()));
+        limiters.put(EndpointClass.ADMIN_WRITES, new AimdLimiter(config.getAdminWrites(), config.getBackoffRatio()));
+        this.retryAfterSeconds = config.getRetryAfterSeconds();
+
+        limiters.forEach((endpoint, limiter) -> {
+            Gauge.builder("auth.concurrency.limit", limiter, AimdLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("endpoint", endpoint.getTag())
+                    .register(meterRegistry);
+            Gauge.builder("auth.concurrency.in-flight", limiter, AimdLimiter::getInFlight)
+                    .description("Requests currently admitted under the limit")
+                    .tag("endpoint", endpoint.getTag())
+                    .register(meterRegistry);
+            rejectedCounters.put(endpoint, Counter.builder("auth.concurrency.rejected")
+                    .description("Requests rejected because the concurrency limit was reached")
+                    .tag("endpoint", endpoint.getTag())
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return EndpointClass.of(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = EndpointClass.of(request);
+        AimdLimiter limiter = limiters.get(endpoint);
+
+        if (!limiter.tryAcquire()) {
+            rejectedCounters.get(endpoint).increment();
+            reject(request, response);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            // 503s from the hashing pool or the database admission limit are overload too
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(startedAt, System.nanoTime(), failed);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", "Too many concurrent requests, please retry later");
+        body.put("path", "uri=" + request.getRequestURI());
+
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
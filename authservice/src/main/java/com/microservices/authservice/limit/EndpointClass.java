@@ -0,0 +1,57 @@
+package com.microservices.authservice.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Groups of endpoints that share a concurrency limit. Each group has its own cost profile,
+ * so a login storm cannot use up the capacity that cheap refreshes and reads need.
+ */
+public enum EndpointClass {
+    LOGIN("login"),
+    REFRESH("refresh"),
+    USER_READS("user-reads"),
+    ADMIN_WRITES("admin-writes");
+
+    private final String tag;
+
+    EndpointClass(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return the value of the endpoint tag on the limiter metrics
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Find the class of a request.
+     *
+     * @param request the request
+     * @return the endpoint class, or null if the request is not limited
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getServletPath();
+        boolean read = HttpMethod.GET.matches(request.getMethod());
+
+        if (path.startsWith("/api/auth/")) {
+            return switch (path) {
+                case "/api/auth/login" -> LOGIN;
+                case "/api/auth/refresh-token", "/api/auth/validate", "/api/auth/logout" -> REFRESH;
+                case "/api/auth/me", "/api/auth/availability" -> USER_READS;
+                case "/api/auth/signup" -> ADMIN_WRITES;
+                default -> null;
+            };
+        }
+        if (path.equals("/api/users") || path.startsWith("/api/users/")) {
+            // Streamed exports and bulk imports run for minutes; they would hold a slot and skew the latency signal
+            if (path.equals("/api/users/export") || path.equals("/api/users/import")) {
+                return null;
+            }
+            return read ? USER_READS : ADMIN_WRITES;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,170 @@
+package com.microservices.authservice.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.authservice.config.LoginThrottleConfig;
+import com.microservices.authservice.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Refuses login attempts before any password is hashed when a username or client IP is being hammered.
+ * <p>
+ * Two checks run, cheapest first:
+ * <ul>
+ *     <li>a username with repeated failed logins is locked out for an exponentially growing back-off,</li>
+ *     <li>each client IP and each username may make only so many attempts per sliding window.</li>
+ * </ul>
+ * A refused attempt costs a map lookup and a compare-and-set instead of a BCrypt comparison. State lives
+ * in a size-bounded cache, so a flood of distinct usernames or IPs evicts old keys rather than growing memory.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String USERNAME_KEY = "user:";
+    private static final String IP_KEY = "ip:";
+
+    private final LoginThrottleConfig config;
+    private final long windowMs;
+    private final Cache<String, KeyState> states;
+
+    private final Counter backoffRejections;
+    private final Counter usernameRejections;
+    private final Counter ipRejections;
+
+    public LoginThrottle(LoginThrottleConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.windowMs = TimeUnit.SECONDS.toMillis(config.getWindowSeconds());
+        this.states = Caffeine.newBuilder()
+                .maximumSize(config.getMaxKeys())
+                // Long enough to remember the longest back-off, and the previous window for the sliding count
+                .expireAfterAccess(Duration.ofMillis(Math.max(2 * windowMs, config.getMaxBackoffMs())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "loginThrottle");
+
+        this.backoffRejections = rejections(meterRegistry, "backoff");
+        this.usernameRejections = rejections(meterRegistry, "username");
+        this.ipRejections = rejections(meterRegistry, "ip");
+    }
+
+    /**
+     * Count a login attempt, or refuse it.
+     *
+     * @param username the username being logged in to
+     * @param clientIp the address of the client, or null if unknown
+     * @throws LoginThrottledException if the attempt is over a limit or the username is backing off
+     */
+    public void checkAttempt(String username, String clientIp) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        KeyState user = state(USERNAME_KEY + normalize(username), now);
+
+        long backoffMs = user.backoffRemaining(now);
+        if (backoffMs > 0) {
+            backoffRejections.increment();
+            throw throttled(backoffMs);
+        }
+
+        // The IP first, so one client cannot use up the window of the usernames it tries
+        if (clientIp != null) {
+            KeyState ip = state(IP_KEY + clientIp, now);
+            if (!ip.window.tryIncrement(now, config.getMaxAttemptsPerIp())) {
+                ipRejections.increment();
+                throw throttled(ip.window.millisUntilNextWindow(now));
+            }
+        }
+        if (!user.window.tryIncrement(now, config.getMaxAttemptsPerUsername())) {
+            usernameRejections.increment();
+            throw throttled(user.window.millisUntilNextWindow(now));
+        }
+    }
+
+    /**
+     * Record a wrong password; once the tolerated failures are used up, every further one doubles the back-off.
+     *
+     * @param username the username the attempt was for
+     */
+    public void recordFailure(String username) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        state(USERNAME_KEY + normalize(username), now).recordFailure(now, config);
+    }
+
+    /**
+     * Record a successful login, which clears the back-off of the username.
+     *
+     * @param username the username that logged in
+     */
+    public void recordSuccess(String username) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        KeyState state = states.getIfPresent(USERNAME_KEY + normalize(username));
+        if (state != null) {
+            state.backoff.set(Backoff.NONE);
+        }
+    }
+
+    private KeyState state(String key, long now) {
+        return states.get(key, k -> new KeyState(windowMs, now));
+    }
+
+    private LoginThrottledException throttled(long waitMs) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999));
+        return new LoginThrottledException("Too many login attempts, please retry later", retryAfterSeconds);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.throttle.rejected")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class KeyState {
+        private final SlidingWindowCounter window;
+        private final AtomicReference<Backoff> backoff = new AtomicReference<>(Backoff.NONE);
+
+        KeyState(long windowMs, long now) {
+            this.window = new SlidingWindowCounter(windowMs, now);
+        }
+
+        long backoffRemaining(long now) {
+            return Math.max(0, backoff.get().until - now);
+        }
+
+        void recordFailure(long now, LoginThrottleConfig config) {
+            backoff.updateAndGet(current -> {
+                int failures = current.failures + 1;
+                int excess = failures - config.getFailuresBeforeBackoff();
+                if (excess <= 0) {
+                    return new Backoff(failures, 0);
+                }
+                // Doubling stops at the cap; the shift is bounded so it cannot overflow
+                long delay = Math.min(config.getMaxBackoffMs(),
+                        config.getInitialBackoffMs() << Math.min(excess - 1, 30));
+                return new Backoff(failures, now + delay);
+            });
+        }
+    }
+
+    private record Backoff(int failures, long until) {
+        static final Backoff NONE = new Backoff(0, 0);
+    }
+}
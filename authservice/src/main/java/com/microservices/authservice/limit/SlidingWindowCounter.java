@@ -0,0 +1,75 @@
+package com.microservices.authservice.limit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free approximation of a sliding window count.
+ * <p>
+ * Counts are kept for the current and the previous fixed window; the previous one is weighted by how much
+ * of it still overlaps the sliding window. Updates swap an immutable snapshot with a compare-and-set, so
+ * concurrent attempts never block each other.
+ */
+public class SlidingWindowCounter {
+
+    private final long windowMs;
+    private final AtomicReference<Snapshot> snapshot;
+
+    public SlidingWindowCounter(long windowMs, long now) {
+        this.windowMs = windowMs;
+        this.snapshot = new AtomicReference<>(new Snapshot(windowStart(now), 0, 0));
+    }
+
+    /**
+     * Count one event unless the window already holds the limit.
+     *
+     * @param now the current time in milliseconds
+     * @param limit events allowed within the window
+     * @return true if the event was counted, false if it is over the limit
+     */
+    public boolean tryIncrement(long now, int limit) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot advanced = current.advanceTo(windowStart(now), windowMs);
+            if (advanced.estimate(now, windowMs) >= limit) {
+                snapshot.compareAndSet(current, advanced);
+                return false;
+            }
+            if (snapshot.compareAndSet(current, advanced.increment())) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param now the current time in milliseconds
+     * @return milliseconds until the current fixed window ends and the count starts to fall
+     */
+    public long millisUntilNextWindow(long now) {
+        return windowStart(now) + windowMs - now;
+    }
+
+    private long windowStart(long now) {
+        return now - Math.floorMod(now, windowMs);
+    }
+
+    private record Snapshot(long start, int count, int previousCount) {
+
+        Snapshot advanceTo(long windowStart, long windowMs) {
+            if (windowStart <= start) {
+                return this;
+            }
+            // Only the window right before the current one still overlaps the sliding window
+            int previous = windowStart - start == windowMs ? count : 0;
+            return new Snapshot(windowStart, 0, previous);
+        }
+
+        double estimate(long now, long windowMs) {
+            double previousWeight = 1.0 - (double) (now - start) / windowMs;
+            return previousCount * previousWeight + count;
+        }
+
+        Snapshot increment() {
+            return new Snapshot(start, count + 1, previousCount);
+        }
+    }
+}
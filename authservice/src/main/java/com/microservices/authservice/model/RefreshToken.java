@@ -9,9 +9,10 @@ import java.time.Instant;
 
 /**
  * Entity class representing a refresh token in the system.
+ * Each user holds at most one token, stored as the SHA-256 digest of the value handed to the client.
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,11 +22,11 @@ public class RefreshToken {
     private Long id;
 
     @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false, unique = true)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64, columnDefinition = "CHAR(64)")
+    private String tokenHash;
 
     @Column(nullable = false)
     private Instant expiryDate;
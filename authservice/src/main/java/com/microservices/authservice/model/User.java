@@ -7,19 +7,27 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Entity class representing a user in the system.
+ * Users and their role links are kept in the second-level cache. Code that writes the users or
+ * user_roles tables with plain JDBC must evict them through SecondLevelCacheEvictor.
  */
 @Entity
 @Table(name = "users",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = "username"),
                 @UniqueConstraint(columnNames = "email")
-        })
+        },
+        indexes = @Index(name = "idx_users_enabled", columnList = "enabled"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,11 +50,20 @@ public class User {
     private String password;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
+    /**
+     * Disabled users cannot log in or use existing access tokens.
+     * Indexed so the periodic lookup of disabled users in stateless mode reads only those rows.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("true")
+    private boolean enabled = true;
+
     public User(String username, String email, String password) {
         this.username = username;
         this.email = email;
@@ -1,37 +1,105 @@
 package com.microservices.authservice.repository;
 
 import com.microservices.authservice.model.RefreshToken;
-import com.microservices.authservice.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.microservices.authservice.repository.projection.RefreshTokenRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository interface for RefreshToken entity, providing methods to interact with the refresh_tokens table.
  */
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+@RepositoryDefinition(domainClass = RefreshToken.class, idClass = Long.class)
+public interface RefreshTokenRepository {
     /**
-     * Find a refresh token by its token value.
-     * @param token the token string to search for
-     * @return an Optional containing the refresh token if found, empty otherwise
+     * Store a user's refresh token in one statement, replacing any token they already hold.
+     * Relies on the unique key on user_id. The statement is declared to touch only refresh_tokens,
+     * otherwise Hibernate would clear every second-level cache region after each login.
+     * @param userId the ID of the token owner
+     * @param tokenHash the digest of the new token
+     * @param expiryDate when the new token expires
+     * @return the number of rows affected
      */
-    Optional<RefreshToken> findByToken(String token);
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "refresh_tokens"))
+    @Query(value = "INSERT INTO refresh_tokens (user_id, token_hash, expiry_date) " +
+            "VALUES (:userId, :tokenHash, :expiryDate) " +
+            "ON DUPLICATE KEY UPDATE token_hash = VALUES(token_hash), expiry_date = VALUES(expiry_date)",
+            nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("tokenHash") String tokenHash,
+               @Param("expiryDate") Instant expiryDate);
+
+    /**
+     * Resolve a token digest to its owner's identity, roles and the token expiry in a single query.
+     * @param tokenHash the digest of the token
+     * @return one row per role of the owner, empty if the token is unknown
+     */
+    @Query("SELECT u.id AS userId, u.username AS username, u.email AS email, " +
+            "r.name AS roleName, t.expiryDate AS expiryDate " +
+            "FROM RefreshToken t JOIN t.user u LEFT JOIN u.roles r " +
+            "WHERE t.tokenHash = :tokenHash")
+    List<RefreshTokenRow> findRowsByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Delete a refresh token by its digest.
+     * @param tokenHash the digest of the token
+     * @return the number of tokens deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
 
     /**
-     * Find a refresh token by its associated user.
-     * @param user the user to search by
-     * @return an Optional containing the refresh token if found, empty otherwise
+     * Find the IDs of tokens that expired before a cutoff, oldest first, using the expiry_date index.
+     * @param cutoff tokens expiring before this instant are returned
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of expired tokens
      */
-    Optional<RefreshToken> findByUser(User user);
+    @Query(value = "SELECT id FROM refresh_tokens WHERE expiry_date < :cutoff ORDER BY expiry_date LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findExpiredIds(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * Delete tokens by primary key.
+     * @param ids the IDs of the tokens to delete
+     * @return the number of tokens deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 
     /**
      * Delete refresh tokens for a specific user.
-     * @param user the user whose tokens should be deleted
+     * @param userId the ID of the user whose tokens should be deleted
+     * @return the number of tokens deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Delete refresh tokens for several users.
+     * @param userIds the IDs of the users whose tokens should be deleted
      * @return the number of tokens deleted
      */
+    @Transactional
     @Modifying
-    int deleteByUser(User user);
-}
\ No newline at end of file
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,65 @@
+package com.microservices.authservice.repository;
+
+import com.microservices.authservice.model.SchedulerLock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repository interface for SchedulerLock entity, providing methods to interact with the scheduler_locks table.
+ * Every method is a single conditional statement, so the lock row is never held across a job run.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+    /**
+     * Create the lock row if it does not exist yet, already expired.
+     * Declared to touch only scheduler_locks, so it leaves the second-level cache alone.
+     * @param name the job name
+     * @param now the current time
+     * @param owner the instance creating the row
+     * @return the number of rows inserted
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+    @Query(value = "INSERT IGNORE INTO scheduler_locks (name, locked_until, locked_by) VALUES (:name, :now, :owner)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("now") Instant now, @Param("owner") String owner);
+
+    /**
+     * Take the lease if it is free, expired or already held by the caller.
+     * @param name the job name
+     * @param owner the instance taking the lease
+     * @param now the current time
+     * @param lockedUntil when the new lease expires
+     * @return 1 if the lease was taken, 0 if another instance holds it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil, l.lockedBy = :owner " +
+            "WHERE l.name = :name AND (l.lockedUntil <= :now OR l.lockedBy = :owner)")
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") Instant now,
+                @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * Give the lease back early.
+     * @param name the job name
+     * @param owner the instance holding the lease
+     * @param now the current time
+     * @return 1 if the lease was released, 0 if the caller no longer held it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -1,21 +1,64 @@
 package com.microservices.authservice.repository;
 
 import com.microservices.authservice.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.microservices.authservice.repository.projection.UserRoleRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for User entity, providing methods to interact with the users table.
+ * Only the CRUD methods the application uses are exposed, so that with sharding enabled every method
+ * has a route to a shard.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+@RepositoryDefinition(domainClass = User.class, idClass = Long.class)
+public interface UserRepository {
     /**
-     * Find a user by username.
+     * Query cache region holding {@link #findByUsername} results.
+     */
+    String FIND_BY_USERNAME_REGION = "users.byUsername";
+
+    /**
+     * Find a user by ID.
+     * @param id the user ID
+     * @return an Optional containing the user if found, empty otherwise
+     */
+    Optional<User> findById(Long id);
+
+    /**
+     * Insert or update a user.
+     * @param user the user to save
+     * @return the saved user
+     */
+    User save(User user);
+
+    /**
+     * Delete a user.
+     * @param user the user to delete
+     */
+    void delete(User user);
+
+    /**
+     * Find a user by username. Results are kept in the query cache, which Hibernate invalidates
+     * whenever the users table is written through JPA.
      * @param username the username to search for
      * @return an Optional containing the user if found, empty otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = FIND_BY_USERNAME_REGION)
+    })
     Optional<User> findByUsername(String username);
 
     /**
@@ -38,4 +81,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if the email exists, false otherwise
      */
     Boolean existsByEmail(String email);
+
+    /**
+     * Replace a user's password hash, but only if it still matches the expected hash.
+     * @param id the user ID
+     * @param currentPassword the hash the caller last saw
+     * @param newPassword the replacement hash
+     * @return the number of rows updated, 0 if the password changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :currentPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id,
+                                  @Param("currentPassword") String currentPassword,
+                                  @Param("newPassword") String newPassword);
+
+    /**
+     * Fetch one page of users after a cursor, with their roles, in a single query.
+     * The page is cut on user IDs in a derived table and only then joined to roles,
+     * so the limit counts users rather than role rows and the cost does not grow with the table.
+     * @param afterId only users with a greater ID are returned
+     * @param usernamePrefix LIKE-escaped username prefix, or null for any username
+     * @param roleName role the users must hold, or null for any role
+     * @param limit the maximum number of users to return
+     * @return one row per user and role, ordered by user ID
+     */
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.email AS email, r.name AS roleName " +
+            "FROM (SELECT p.id FROM users p " +
+            "      WHERE p.id > :afterId " +
+            "        AND (:usernamePrefix IS NULL OR p.username LIKE CONCAT(:usernamePrefix, '%')) " +
+            "        AND (:roleName IS NULL OR EXISTS (SELECT 1 FROM user_roles pr JOIN roles pn ON pn.id = pr.role_id " +
+            "                                          WHERE pr.user_id = p.id AND pn.name = :roleName)) " +
+            "      ORDER BY p.id LIMIT :limit) page " +
+            "JOIN users u ON u.id = page.id " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id " +
+            "ORDER BY u.id",
+            nativeQuery = true)
+    List<UserRoleRow> findPage(@Param("afterId") long afterId,
+                               @Param("usernamePrefix") String usernamePrefix,
+                               @Param("roleName") String roleName,
+                               @Param("limit") int limit);
+
+    /**
+     * Fetch users by ID with their roles, in a single query.
+     * @param ids the user IDs
+     * @return one row per user and role, in no particular order
+     */
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.email AS email, r.name AS roleName " +
+            "FROM users u " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id " +
+            "WHERE u.id IN (:ids)",
+            nativeQuery = true)
+    List<UserRoleRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.microservices.authservice.repository.projection;
+
+import com.microservices.authservice.model.ERole;
+
+import java.time.Instant;
+
+/**
+ * One row of the refresh lookup: the token owner's identity joined with one of their roles.
+ * A user with several roles produces one row per role.
+ */
+public interface RefreshTokenRow {
+    Long getUserId();
+
+    String getUsername();
+
+    String getEmail();
+
+    ERole getRoleName();
+
+    Instant getExpiryDate();
+}
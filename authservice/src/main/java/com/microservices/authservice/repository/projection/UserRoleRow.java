@@ -0,0 +1,15 @@
+package com.microservices.authservice.repository.projection;
+
+/**
+ * One row of a user listing: a user's identity joined with one of their roles.
+ * A user with several roles produces one row per role; a user with none produces one row with no role.
+ */
+public interface UserRoleRow {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getRoleName();
+}
@@ -0,0 +1,56 @@
+package com.microservices.authservice.security.crypto;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PasswordEncoder that runs the hashing of a delegate encoder on the {@link PasswordHashingExecutor}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash a password without blocking the caller.
+     *
+     * @param rawPassword the password to hash
+     * @return a future completed with the encoded password
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return executor.submit("encode", () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Check a password against a stored hash without blocking the caller.
+     *
+     * @param rawPassword the password to check
+     * @param encodedPassword the stored hash
+     * @return a future completed with whether the password matches
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return executor.submit("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the hash prefix, cheap enough to run inline
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,69 @@
+package com.microservices.authservice.security.crypto;
+
+import com.microservices.authservice.config.PasswordEncoderConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Measures how many hashes and verifications per second each configured encoder achieves on this host.
+ * Enabled with app.password-encoder.benchmark.enabled=true; results are logged at startup so login
+ * capacity can be sized before changing the algorithm or cost.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.password-encoder.benchmark", name = "enabled", havingValue = "true")
+public class PasswordEncoderBenchmark implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderBenchmark.class);
+
+    private static final String SAMPLE_PASSWORD = "benchmark-Password-123";
+
+    @Autowired
+    private PasswordEncoderConfig config;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int iterations = Math.max(1, config.getBenchmark().getIterations());
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        logger.info("Benchmarking password encoders: {} iterations each, {} processors", iterations, processors);
+
+        for (Map.Entry<String, PasswordEncoder> entry : PasswordEncoders.byId(config).entrySet()) {
+            PasswordEncoder encoder = entry.getValue();
+
+            // Warm up so class loading and JIT do not count against the first encoder
+            String hash = encoder.encode(SAMPLE_PASSWORD);
+            encoder.matches(SAMPLE_PASSWORD, hash);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                hash = encoder.encode(SAMPLE_PASSWORD);
+            }
+            double encodePerSecond = perSecond(iterations, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                encoder.matches(SAMPLE_PASSWORD, hash);
+            }
+            double matchesPerSecond = perSecond(iterations, System.nanoTime() - start);
+
+            logger.info("{}{}: {} hashes/s, {} verifications/s per thread, about {} logins/s on {} processors",
+                    entry.getKey(),
+                    entry.getKey().equals(config.getEncodingId()) ? " (active)" : "",
+                    String.format("%.1f", encodePerSecond),
+                    String.format("%.1f", matchesPerSecond),
+                    String.format("%.0f", matchesPerSecond * processors),
+                    processors);
+        }
+    }
+
+    private static double perSecond(int operations, long elapsedNanos) {
+        return operations / (elapsedNanos / 1_000_000_000.0);
+    }
+}
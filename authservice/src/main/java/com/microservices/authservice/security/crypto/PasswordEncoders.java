@@ -0,0 +1,58 @@
+package com.microservices.authservice.security.crypto;
+
+import com.microservices.authservice.config.PasswordEncoderConfig;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the password encoders from their configured cost settings.
+ */
+public final class PasswordEncoders {
+
+    private PasswordEncoders() {
+    }
+
+    /**
+     * Build one encoder per supported algorithm.
+     *
+     * @param config the encoder settings
+     * @return encoders keyed by the id stored in the hash prefix
+     */
+    public static Map<String, PasswordEncoder> byId(PasswordEncoderConfig config) {
+        PasswordEncoderConfig.Pbkdf2 pbkdf2 = config.getPbkdf2();
+        PasswordEncoderConfig.Argon2 argon2 = config.getArgon2();
+        PasswordEncoderConfig.Scrypt scrypt = config.getScrypt();
+
+        Map<String, PasswordEncoder> encoders = new LinkedHashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(config.getBcrypt().getStrength()));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", pbkdf2.getSaltLength(), pbkdf2.getIterations(),
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        encoders.put("argon2", new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                argon2.getParallelism(), argon2.getMemory(), argon2.getIterations()));
+        encoders.put("scrypt", new SCryptPasswordEncoder(scrypt.getCpuCost(), scrypt.getMemoryCost(),
+                scrypt.getParallelization(), scrypt.getKeyLength(), scrypt.getSaltLength()));
+        return encoders;
+    }
+
+    /**
+     * Build a delegating encoder that hashes with the configured algorithm and verifies any of them.
+     * Hashes stored before ids were used carry no {id} prefix and are verified as BCrypt.
+     *
+     * @param config the encoder settings
+     * @return the delegating encoder
+     */
+    public static DelegatingPasswordEncoder delegating(PasswordEncoderConfig config) {
+        Map<String, PasswordEncoder> encoders = byId(config);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(config.getEncodingId(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return encoder;
+    }
+}
@@ -0,0 +1,196 @@
+package com.microservices.authservice.security.crypto;
+
+import com.microservices.authservice.config.PasswordHashingConfig;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, CPU-sized thread pool with a bounded queue.
+ * When the queue is full callers fail fast with {@link ServiceOverloadedException}
+ * instead of tying up request threads behind a login storm.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> hashTimers = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    public PasswordHashingExecutor(PasswordHashingConfig config, MeterRegistry meterRegistry) {
+        int threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = config.getTimeoutMs();
+        this.retryAfterSeconds = config.getRetryAfterSeconds();
+
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time hash operations spend queued before a thread picks them up")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hashing.rejected")
+                .description("Hash operations rejected because the queue was full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("auth.password.hashing.timeouts")
+                .description("Hash operations abandoned after waiting too long")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Hash operations waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hash operations currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a hash operation on the hashing pool and wait for its result.
+     *
+     * @param operation name of the operation, used to tag the latency metric
+     * @param task the hash operation
+     * @return the result of the task
+     * @throws ServiceOverloadedException if the pool is saturated or the task does not finish in time
+     */
+    public <T> T execute(String operation, Callable<T> task) {
+        Timer hashTimer = hashTimer(operation);
+
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Run a hash operation on the hashing pool without waiting for it, for callers that must not block.
+     * Rejection and timeout are reported through the returned future as {@link ServiceOverloadedException}.
+     *
+     * @param operation name of the operation, used to tag the latency metric
+     * @param task the hash operation
+     * @return a future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(String operation, Callable<T> task) {
+        Timer hashTimer = hashTimer(operation);
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    // Timed out while queued; nobody is waiting for the hash any more
+                    return;
+                }
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(overloaded());
+        }
+
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionallyCompose(error -> {
+            if (error instanceof TimeoutException) {
+                timeoutCounter.increment();
+                return CompletableFuture.failedFuture(overloaded());
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Timer hashTimer(String operation) {
+        return hashTimers.computeIfAbsent(operation, op -> Timer.builder("auth.password.hashing.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", op)
+                .register(meterRegistry));
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Authentication is temporarily overloaded, please retry later",
+                retryAfterSeconds);
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.authservice.security.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Generates opaque refresh tokens and the fixed-width digests they are stored and looked up by.
+ * Only the digest is persisted, so a leaked table does not expose usable tokens.
+ */
+public final class TokenHasher {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TokenHasher() {
+    }
+
+    /**
+     * Generate a new random token.
+     *
+     * @return a URL-safe token carrying 256 bits of randomness
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Compute the digest a token is stored under.
+     *
+     * @param token the raw token
+     * @return the SHA-256 digest as 64 lowercase hex characters
+     */
+    public static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
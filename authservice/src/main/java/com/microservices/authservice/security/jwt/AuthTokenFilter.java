@@ -1,6 +1,8 @@
 package com.microservices.authservice.security.jwt;
 
+import com.microservices.authservice.config.JwtConfig;
 import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.jwt.JwtVerification;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +29,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private JwtConfig jwtConfig;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     /**
@@ -43,18 +48,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = jwtUtils.parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            JwtVerification verification = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (verification != null && verification.isValid()) {
+                UserDetails userDetails = loadUserDetails(verification);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    logger.debug("Ignoring token of disabled user {}", userDetails.getUsername());
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -62,4 +70,23 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolve the principal for a verified token. In stateless mode it is built from the token
+     * claims, and comes back disabled for users deactivated since; tokens issued without those
+     * claims still fall back to a database lookup.
+     *
+     * @param verification the verified token
+     * @return the user details
+     */
+    private UserDetails loadUserDetails(JwtVerification verification) {
+        if (jwtConfig.isStatelessAuth()) {
+            UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(verification.getClaims());
+            if (userDetails != null) {
+                return userDetails;
+            }
+        }
+
+        return userDetailsService.loadUserByUsername(verification.getSubject());
+    }
 }
\ No newline at end of file
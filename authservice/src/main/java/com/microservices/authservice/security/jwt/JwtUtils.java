@@ -1,21 +1,27 @@
 package com.microservices.authservice.security.jwt;
 
+import com.microservices.authservice.security.services.DisabledUserRegistry;
 import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.jwt.JwtClaimNames;
+import com.microservices.jwt.JwtVerification;
+import com.microservices.jwt.JwtVerifier;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io
-
-        .Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for handling JWT operations like generation, validation, and extraction.
@@ -30,6 +36,19 @@ public class JwtUtils {
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Autowired
+    private DisabledUserRegistry disabledUsers;
+
+    private JwtVerifier verifier;
+
+    /**
+     * Build the signing key and parser once instead of on every call.
+     */
+    @PostConstruct
+    public void init() {
+        verifier = new JwtVerifier(jwtSecret);
+    }
+
     /**
      * Generate a JWT token for an authenticated user.
      *
@@ -39,51 +58,113 @@ public class JwtUtils {
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+        return generateTokenFromUserDetails(userPrincipal);
     }
 
     /**
-     * Generate a JWT token for a specific username.
+     * Generate a self-contained JWT token for a user.
+     * The user id, email and roles are embedded as claims so the principal can be rebuilt
+     * from the token alone.
      *
-     * @param username the username to generate a token for
+     * @param userDetails the user to generate a token for
      * @return the generated JWT token
      */
-    public String generateTokenFromUsername(String username) {
+    public String generateTokenFromUserDetails(UserDetailsImpl userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(userDetails.getUsername())
+                .claim(JwtClaimNames.USER_ID, userDetails.getId())
+                .claim(JwtClaimNames.EMAIL, userDetails.getEmail())
+                .claim(JwtClaimNames.ROLES, roles)
+                .claim(JwtClaimNames.ROLE, String.join(",", roles))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Build the user principal from the claims of a verified token. The claims cannot say whether the
+     * account was deactivated since the token was issued, so that comes from {@link DisabledUserRegistry}.
+     *
+     * @param claims the verified token claims
+     * @return the user details, not enabled if the user has been deactivated or deleted,
+     * or null if the token predates self-contained claims
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Long id = claims.get(JwtClaimNames.USER_ID, Long.class);
+        List<?> roles = claims.get(JwtClaimNames.ROLES, List.class);
+        if (id == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(
+                id,
+                claims.getSubject(),
+                claims.get(JwtClaimNames.EMAIL, String.class),
+                null,
+                authorities,
+                !disabledUsers.isDisabled(id));
+    }
+
     /**
      * Get the signing key for JWT token generation and validation.
      *
      * @return the signing key
      */
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return verifier.getSigningKey();
     }
 
     /**
      * Extract username from a JWT token.
      *
      * @param token the JWT token
-     * @return the username
+     * @return the username, or null if the token is not valid
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verifier.verify(token).getSubject();
+    }
+
+    /**
+     * Parse and verify a JWT token once, logging the reason if it is not valid.
+     *
+     * @param authToken the token to verify
+     * @return the verification result with the token claims when valid
+     */
+    public JwtVerification verifyJwtToken(String authToken) {
+        JwtVerification verification = verifier.verify(authToken);
+
+        switch (verification.getStatus()) {
+            case VALID:
+                break;
+            case MALFORMED:
+                logger.error("Invalid JWT token: {}", verification.getMessage());
+                break;
+            case EXPIRED:
+                logger.error("JWT token is expired: {}", verification.getMessage());
+                break;
+            case UNSUPPORTED:
+                logger.error("JWT token is unsupported: {}", verification.getMessage());
+                break;
+            case EMPTY:
+                logger.error("JWT claims string is empty: {}", verification.getMessage());
+                break;
+            case INVALID_SIGNATURE:
+                logger.error("Invalid JWT signature: {}", verification.getMessage());
+                break;
+            default:
+                logger.error("JWT token is invalid: {}", verification.getMessage());
+        }
+
+        return verification;
     }
 
     /**
@@ -93,20 +174,7 @@ public class JwtUtils {
      * @return true if valid, false otherwise
      */
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        }
-
-        return false;
+        return verifyJwtToken(authToken).isValid();
     }
 
     /**
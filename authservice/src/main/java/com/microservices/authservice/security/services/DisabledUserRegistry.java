@@ -0,0 +1,174 @@
+package com.microservices.authservice.security.services;
+
+import com.microservices.authservice.config.JwtConfig;
+import com.microservices.authservice.sharding.Shards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Users whose access tokens are refused in stateless mode. There the principal is built from the token
+ * claims, so the enabled flag of the account is never read and the tokens of a deactivated user would
+ * otherwise keep working until they expire.
+ * <p>
+ * Disabled accounts are read from the users table at startup and every app.jwt.disabled-users-refresh-ms,
+ * so deactivations made through another instance apply within that interval; those made through this
+ * instance apply as soon as they commit. A deleted user can no longer be read back, so a delete made through
+ * this instance is remembered for one access token lifetime. Deletes made through another instance are not
+ * seen, and those tokens stay valid until they expire.
+ */
+@Component
+public class DisabledUserRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DisabledUserRegistry.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    // Serializes reloads with local changes, so a reload that read the table before a change committed cannot drop it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Set<Long> disabled = Set.of();
+
+    /**
+     * Deleted user IDs, with the time their last access token expires in epoch milliseconds.
+     */
+    private final Map<Long, Long> deleted = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        scheduledReload();
+    }
+
+    @Scheduled(initialDelayString = "${app.jwt.disabled-users-refresh-ms:30000}",
+            fixedDelayString = "${app.jwt.disabled-users-refresh-ms:30000}")
+    public void scheduledReload() {
+        if (!jwtConfig.isStatelessAuth()) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep the last known set; the next run tries again
+            logger.warn("Could not read disabled users: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Read the disabled users from every shard and replace the current set.
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            Set<Long> loaded = new HashSet<>();
+            shards.forEach(shard -> loaded.addAll(
+                    jdbcTemplate.queryForList("SELECT id FROM users WHERE enabled = false", Long.class)));
+            disabled = Set.copyOf(loaded);
+
+            long now = System.currentTimeMillis();
+            deleted.values().removeIf(expiresAt -> expiresAt <= now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param userId the user ID from a token
+     * @return whether the user has been deactivated or deleted
+     */
+    public boolean isDisabled(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (disabled.contains(userId)) {
+            return true;
+        }
+        Long expiresAt = deleted.get(userId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Refuse the tokens of users. Inside a transaction this happens after commit.
+     *
+     * @param userIds the deactivated users
+     */
+    public void markDisabled(Collection<Long> userIds) {
+        if (jwtConfig.isStatelessAuth()) {
+            List<Long> ids = List.copyOf(userIds);
+            afterCommit(() -> update(set -> set.addAll(ids)));
+        }
+    }
+
+    /**
+     * Accept the tokens of users again. Inside a transaction this happens after commit.
+     *
+     * @param userIds the re-enabled users
+     */
+    public void markEnabled(Collection<Long> userIds) {
+        if (jwtConfig.isStatelessAuth()) {
+            List<Long> ids = List.copyOf(userIds);
+            afterCommit(() -> update(set -> ids.forEach(set::remove)));
+        }
+    }
+
+    /**
+     * Refuse the tokens of deleted users until they would have expired. Inside a transaction this happens
+     * after commit.
+     *
+     * @param userIds the deleted users
+     */
+    public void markDeleted(Collection<Long> userIds) {
+        if (jwtConfig.isStatelessAuth()) {
+            List<Long> ids = List.copyOf(userIds);
+            afterCommit(() -> {
+                long expiresAt = System.currentTimeMillis() + jwtConfig.getExpirationMs();
+                ids.forEach(id -> deleted.put(id, expiresAt));
+            });
+        }
+    }
+
+    private void update(Consumer<Set<Long>> change) {
+        lock.lock();
+        try {
+            Set<Long> next = new HashSet<>(disabled);
+            change.accept(next);
+            disabled = Set.copyOf(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
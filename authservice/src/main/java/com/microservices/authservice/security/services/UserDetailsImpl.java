@@ -31,6 +31,22 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private boolean enabled = true;
+
+    /**
+     * Create details for an enabled user.
+     *
+     * @param id the user ID
+     * @param username the username
+     * @param email the user email
+     * @param password the password hash, or null when not needed
+     * @param authorities the granted authorities
+     */
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, true);
+    }
+
     /**
      * Build UserDetailsImpl from User entity.
      *
@@ -47,7 +63,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.isEnabled());
     }
 
     @Override
@@ -82,7 +99,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 
     @Override
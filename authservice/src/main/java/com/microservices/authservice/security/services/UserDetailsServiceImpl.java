@@ -1,8 +1,11 @@
 package com.microservices.authservice.security.services;
 
+import com.microservices.authservice.config.CacheConfig;
 import com.microservices.authservice.model.User;
 import com.microservices.authservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -12,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Service implementation of Spring Security's UserDetailsService.
  * Provides user details to the authentication manager.
+ * Loaded users are cached; callers that change a user must evict it through {@link #evictUser(String)}.
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -20,6 +24,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     /**
      * Load user by username for authentication.
+     * Runs on the primary even when a read replica is configured: the result is cached, so reading it
+     * from a lagging replica right after an eviction would keep stale roles or a disabled account cached.
      *
      * @param username the username to search for
      * @return UserDetails instance
@@ -27,10 +33,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     @Transactional
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username.toLowerCase()", sync = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * Drop a cached user so the next lookup reads it from the database.
+     * Inside a transaction the eviction happens after commit.
+     *
+     * @param username the username to evict
+     */
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username.toLowerCase()")
+    public void evictUser(String username) {
+    }
 }
\ No newline at end of file
@@ -2,27 +2,32 @@ package com.microservices.authservice.service;
 
 import com.microservices.authservice.dto.request.LoginRequest;
 import com.microservices.authservice.dto.request.SignupRequest;
+import com.microservices.authservice.dto.response.AvailabilityResponse;
 import com.microservices.authservice.dto.response.JwtResponse;
 import com.microservices.authservice.dto.response.MessageResponse;
 import com.microservices.authservice.exception.TokenRefreshException;
-import com.microservices.authservice.model.ERole;
-import com.microservices.authservice.model.RefreshToken;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.limit.LoginThrottle;
 import com.microservices.authservice.model.Role;
 import com.microservices.authservice.model.User;
-import com.microservices.authservice.repository.RoleRepository;
 import com.microservices.authservice.repository.UserRepository;
 import com.microservices.authservice.security.jwt.JwtUtils;
 import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.authservice.service.identity.UserIdentityFilter;
+import com.microservices.authservice.service.search.UserSearchIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -31,6 +36,7 @@ import java.util.stream.Collectors;
  * Service for user authentication operations.
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthService {
 
     @Autowired
@@ -40,7 +46,7 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -51,15 +57,41 @@ public class AuthService {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Autowired
+    private UserIdentityFilter identityFilter;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
      * Authenticate a user and generate tokens.
      *
      * @param loginRequest login credentials
+     * @param clientIp address of the client, used for throttling
      * @return JWT response with tokens and user information
      */
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+    public JwtResponse authenticateUser(LoginRequest loginRequest, String clientIp) {
+        // Refused attempts never reach the password encoder
+        loginThrottle.checkAttempt(loginRequest.getUsername(), clientIp);
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(loginRequest.getUsername());
+            throw e;
+        }
+        loginThrottle.recordSuccess(loginRequest.getUsername());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
@@ -71,11 +103,13 @@ public class AuthService {
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toList());
 
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
+        String refreshToken = refreshTokenService.createRefreshToken(userDetails);
+
+        passwordUpgradeService.upgradeIfNeeded(userDetails, loginRequest.getPassword());
 
         return new JwtResponse(
                 jwt,
-                refreshToken.getToken(),
+                refreshToken,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getEmail(),
@@ -91,12 +125,12 @@ public class AuthService {
     @Transactional
     public MessageResponse registerUser(SignupRequest signupRequest) {
         // Check if username already exists
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
+        if (isUsernameTaken(signupRequest.getUsername())) {
             return new MessageResponse("Error: Username is already taken!");
         }
 
         // Check if email already exists
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
+        if (isEmailTaken(signupRequest.getEmail())) {
             return new MessageResponse("Error: Email is already in use!");
         }
 
@@ -106,36 +140,46 @@ public class AuthService {
                 signupRequest.getEmail(),
                 passwordEncoder.encode(signupRequest.getPassword()));
 
-        Set<String> strRoles = signupRequest.getRoles();
-        Set<Role> roles = new HashSet<>();
-
-        if (strRoles == null || strRoles.isEmpty()) {
-            // Default role is USER
-            Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role USER is not found."));
-            roles.add(userRole);
-        } else {
-            strRoles.forEach(role -> {
-                switch (role) {
-                    case "admin":
-                        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role ADMIN is not found."));
-                        roles.add(adminRole);
-                        break;
-                    default:
-                        Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role USER is not found."));
-                        roles.add(userRole);
-                }
-            });
-        }
+        Set<Role> roles = roleRegistry.resolveSignupRoles(signupRequest.getRoles());
 
         user.setRoles(roles);
         userRepository.save(user);
+        identityFilter.add(user.getUsername(), user.getEmail());
+        searchIndex.index(user.getId(), user.getUsername(), user.getEmail());
 
         return new MessageResponse("User registered successfully!");
     }
 
+    /**
+     * Check whether a username and/or email can still be registered.
+     *
+     * @param username the username to check, or null
+     * @param email the email to check, or null
+     * @return availability of each value that was given
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        if (!StringUtils.hasText(username) && !StringUtils.hasText(email)) {
+            throw new UserOperationException("A username or email is required");
+        }
+
+        Boolean usernameAvailable = StringUtils.hasText(username) ? !isUsernameTaken(username) : null;
+        Boolean emailAvailable = StringUtils.hasText(email) ? !isEmailTaken(email) : null;
+
+        return new AvailabilityResponse(username, usernameAvailable, email, emailAvailable);
+    }
+
+    /**
+     * Only names the filter cannot rule out are checked against the database.
+     */
+    private boolean isUsernameTaken(String username) {
+        return identityFilter.mightHaveUsername(username) && userRepository.existsByUsername(username);
+    }
+
+    private boolean isEmailTaken(String email) {
+        return identityFilter.mightHaveEmail(email) && userRepository.existsByEmail(email);
+    }
+
     /**
      * Refresh an access token using a refresh token.
      *
@@ -143,38 +187,38 @@ public class AuthService {
      * @return JWT response with new access token
      */
     public JwtResponse refreshToken(String requestRefreshToken) {
-        return refreshTokenService.findByToken(requestRefreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    String token = jwtUtils.generateTokenFromUsername(user.getUsername());
-
-                    UserDetailsImpl userDetails = UserDetailsImpl.build(user);
-
-                    List<String> roles = userDetails.getAuthorities().stream()
-                            .map(item -> item.getAuthority())
-                            .collect(Collectors.toList());
-
-                    return new JwtResponse(
-                            token,
-                            requestRefreshToken,
-                            userDetails.getId(),
-                            userDetails.getUsername(),
-                            userDetails.getEmail(),
-                            roles);
-                })
+        RefreshSession session = refreshTokenService.findSession(requestRefreshToken)
+                .map(found -> refreshTokenService.verifyExpiration(found, requestRefreshToken))
                 .orElseThrow(() -> new TokenRefreshException(requestRefreshToken,
                         "Refresh token is not in database!"));
+
+        UserDetailsImpl userDetails = session.getUserDetails();
+
+        String token = jwtUtils.generateTokenFromUserDetails(userDetails);
+
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+
+        return new JwtResponse(
+                token,
+                requestRefreshToken,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail(),
+                roles);
     }
 
     /**
-     * Log out a user by deleting their refresh tokens.
+     * Log out a user by deleting their refresh tokens and dropping their cached details.
      *
      * @param userId the ID of the user to log out
+     * @param username the username of the user to log out
      * @return response message
      */
-    public MessageResponse logoutUser(Long userId) {
+    public MessageResponse logoutUser(Long userId, String username) {
         refreshTokenService.deleteByUserId(userId);
+        userDetailsService.evictUser(username);
         return new MessageResponse("Log out successful!");
     }
 
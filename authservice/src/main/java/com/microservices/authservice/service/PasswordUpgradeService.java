@@ -0,0 +1,113 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.config.PasswordEncoderConfig;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import com.microservices.authservice.repository.UserRepository;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves stored password hashes to the configured algorithm and cost as users log in.
+ * The rehash runs after the login response is built, on a single background thread that
+ * drops work when it falls behind, so upgrades never add latency to a login.
+ */
+@Service
+public class PasswordUpgradeService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordEncoderConfig passwordEncoderConfig;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private final ThreadPoolExecutor upgradeExecutor = new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-upgrade");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private final Counter upgradedCounter;
+    private final Counter skippedCounter;
+
+    public PasswordUpgradeService(MeterRegistry meterRegistry) {
+        this.upgradedCounter = Counter.builder("auth.password.upgrades")
+                .description("Stored password hashes moved to the current algorithm or cost")
+                .tag("result", "upgraded")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("auth.password.upgrades")
+                .description("Stored password hashes moved to the current algorithm or cost")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedule a rehash if the user's stored hash is outdated. Called after a successful login,
+     * the only time the raw password is available.
+     *
+     * @param userDetails the authenticated user
+     * @param rawPassword the password the user just logged in with
+     */
+    public void upgradeIfNeeded(UserDetailsImpl userDetails, String rawPassword) {
+        String currentHash = userDetails.getPassword();
+        if (!passwordEncoderConfig.isUpgradeOnLogin() || currentHash == null
+                || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+
+        upgradeExecutor.execute(() ->
+                upgrade(userDetails.getId(), userDetails.getUsername(), currentHash, rawPassword));
+    }
+
+    private void upgrade(Long userId, String username, String currentHash, String rawPassword) {
+        try {
+            String upgradedHash = passwordEncoder.encode(rawPassword);
+
+            // Only replace the hash we verified, so a concurrent password change is never overwritten
+            if (userRepository.updatePasswordIfUnchanged(userId, currentHash, upgradedHash) > 0) {
+                userDetailsService.evictUser(username);
+                upgradedCounter.increment();
+                logger.debug("Upgraded password hash for user {}", userId);
+            } else {
+                skippedCounter.increment();
+            }
+        } catch (ServiceOverloadedException e) {
+            // Logins keep priority on the hashing pool; the user is upgraded on a later login
+            skippedCounter.increment();
+            logger.debug("Skipped password upgrade for user {}: hashing pool is busy", userId);
+        } catch (RuntimeException e) {
+            skippedCounter.increment();
+            logger.warn("Password upgrade for user {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        upgradeExecutor.shutdown();
+    }
+}
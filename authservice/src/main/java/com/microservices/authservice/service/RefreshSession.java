@@ -0,0 +1,62 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A refresh token resolved to the user it was issued to, without loading the user entity.
+ */
+@Data
+@AllArgsConstructor
+public class RefreshSession {
+    /**
+     * Digest the token is stored under.
+     */
+    private String tokenHash;
+
+    /**
+     * The token owner, with no password.
+     */
+    private UserDetailsImpl userDetails;
+
+    private Instant expiryDate;
+
+    /**
+     * Build a session from the token row and the owner's role names.
+     *
+     * @param tokenHash digest the token is stored under
+     * @param userId the owner's ID
+     * @param username the owner's username
+     * @param email the owner's email
+     * @param roleNames the owner's role names; null entries are ignored
+     * @param expiryDate when the token expires
+     * @return the session
+     */
+    public static RefreshSession of(String tokenHash, Long userId, String username, String email,
+                                    Collection<String> roleNames, Instant expiryDate) {
+        List<GrantedAuthority> authorities = roleNames.stream()
+                .filter(Objects::nonNull)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, email, null, authorities);
+        return new RefreshSession(tokenHash, userDetails, expiryDate);
+    }
+
+    public Long getUserId() {
+        return userDetails.getId();
+    }
+
+    public boolean isExpired() {
+        return expiryDate.isBefore(Instant.now());
+    }
+}
@@ -0,0 +1,131 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.config.TokenPurgeConfig;
+import com.microservices.authservice.repository.RefreshTokenRepository;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired refresh tokens that clients never presented again.
+ * Tokens are removed in small batches, each its own short transaction keyed by primary key,
+ * with a pause in between, so the purge never holds locks that logins have to wait on.
+ * A database lease keeps concurrent instances from purging at the same time.
+ * With sharding enabled, shards are purged one after another under the same lease.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+
+    static final String LOCK_NAME = "refresh-token-purge";
+
+    /**
+     * Stop this long before the lease expires, so a batch never runs unprotected.
+     */
+    private static final Duration LEASE_MARGIN = Duration.ofSeconds(5);
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Autowired
+    private TokenPurgeConfig config;
+
+    @Autowired
+    private Shards shards;
+
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public RefreshTokenPurgeJob(MeterRegistry meterRegistry) {
+        this.purgedCounter = Counter.builder("auth.refresh.tokens.purged")
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("auth.refresh.tokens.purge.duration")
+                .description("Time taken by a purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.refresh-token.purge.interval-ms:600000}",
+            fixedDelayString = "${app.refresh-token.purge.interval-ms:600000}")
+    public void purgeExpiredTokens() {
+        Instant leaseExpiry = schedulerLockService.tryAcquire(LOCK_NAME, Duration.ofMillis(config.getLeaseMs()));
+        if (leaseExpiry == null) {
+            logger.debug("Skipping refresh token purge: another instance holds the lease");
+            return;
+        }
+
+        try {
+            long startedAt = System.nanoTime();
+            long purged = purgeUntil(leaseExpiry.minus(LEASE_MARGIN));
+            purgeTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (purged > 0) {
+                logger.info("Purged {} expired refresh tokens", purged);
+            }
+        } finally {
+            schedulerLockService.release(LOCK_NAME);
+        }
+    }
+
+    /**
+     * Delete expired tokens batch by batch until none are left or the deadline passes.
+     *
+     * @param deadline when to stop even if expired tokens remain
+     * @return the number of tokens deleted
+     */
+    long purgeUntil(Instant deadline) {
+        Instant cutoff = Instant.now();
+        long[] purged = {0};
+        shards.forEach(shard -> purged[0] += purgeShard(cutoff, deadline));
+        return purged[0];
+    }
+
+    private long purgeShard(Instant cutoff, Instant deadline) {
+        long purged = 0;
+
+        while (Instant.now().isBefore(deadline)) {
+            List<Long> ids = refreshTokenRepository.findExpiredIds(cutoff, config.getBatchSize());
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            int deleted = refreshTokenRepository.deleteByIdIn(ids);
+            purged += deleted;
+            purgedCounter.increment(deleted);
+
+            if (ids.size() < config.getBatchSize() || !pause()) {
+                break;
+            }
+        }
+
+        return purged;
+    }
+
+    private boolean pause() {
+        if (config.getPauseMs() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(config.getPauseMs());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
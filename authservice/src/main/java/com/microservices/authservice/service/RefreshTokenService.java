@@ -1,18 +1,17 @@
 package com.microservices.authservice.service;
 
 import com.microservices.authservice.exception.TokenRefreshException;
-import com.microservices.authservice.model.RefreshToken;
-import com.microservices.authservice.model.User;
-import com.microservices.authservice.repository.RefreshTokenRepository;
-import com.microservices.authservice.repository.UserRepository;
+import com.microservices.authservice.security.crypto.TokenHasher;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.service.token.RefreshTokenStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Service for handling refresh token operations.
@@ -24,73 +23,98 @@ public class RefreshTokenService {
     private long refreshTokenDurationMs;
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     /**
-     * Find a refresh token by its token value.
+     * Resolve a refresh token to the user it was issued to.
+     * Runs on the primary even when a read replica is configured: a lagging replica would not yet know
+     * a token just issued at login, and would still accept one already revoked by logout or deactivation.
      *
-     * @param token the token string
-     * @return an Optional containing the refresh token if found
+     * @param token the raw refresh token
+     * @return an Optional containing the session if the token is known
      */
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    @Transactional
+    public Optional<RefreshSession> findSession(String token) {
+        return refreshTokenStore.findByTokenHash(TokenHasher.hash(token));
     }
 
     /**
-     * Create a new refresh token for a user.
+     * Create a new refresh token for a user, replacing any token they already hold.
      *
-     * @param userId the ID of the user
-     * @return the created refresh token
+     * @param userDetails the authenticated user
+     * @return the raw token to hand to the client; only its digest is stored
      */
-    public RefreshToken createRefreshToken(Long userId) {
-        RefreshToken refreshToken = new RefreshToken();
-
-        refreshToken.setUser(userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId)));
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-        refreshToken.setToken(UUID.randomUUID().toString());
-
-        // Check if user already has a refresh token
-        Optional<RefreshToken> existingToken = refreshTokenRepository.findByUser(refreshToken.getUser());
-        if (existingToken.isPresent()) {
-            // Update existing token instead of creating a new one
-            RefreshToken token = existingToken.get();
-            token.setExpiryDate(refreshToken.getExpiryDate());
-            token.setToken(refreshToken.getToken());
-            return refreshTokenRepository.save(token);
-        }
+    @Transactional
+    public String createRefreshToken(UserDetailsImpl userDetails) {
+        String token = TokenHasher.newToken();
+
+        // Keep the owner's identity and roles with the token, but never the password hash
+        UserDetailsImpl owner = new UserDetailsImpl(
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail(),
+                null,
+                userDetails.getAuthorities());
 
-        return refreshTokenRepository.save(refreshToken);
+        refreshTokenStore.save(new RefreshSession(TokenHasher.hash(token), owner,
+                Instant.now().plusMillis(refreshTokenDurationMs)));
+
+        return token;
     }
 
     /**
-     * Verify if a refresh token is still valid (not expired).
+     * Verify if a refresh session is still valid (not expired).
      *
-     * @param token the refresh token to verify
-     * @return the verified refresh token
+     * @param session the refresh session to verify
+     * @param token the raw refresh token, for the error response
+     * @return the verified refresh session
      */
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(), "Refresh token was expired. Please make a new signin request");
+    @Transactional
+    public RefreshSession verifyExpiration(RefreshSession session, String token) {
+        if (session.isExpired()) {
+            refreshTokenStore.deleteByTokenHash(session.getTokenHash());
+            throw new TokenRefreshException(token, "Refresh token was expired. Please make a new signin request");
         }
 
-        return token;
+        return session;
     }
 
     /**
      * Delete all refresh tokens for a user.
      *
      * @param userId the ID of the user
+     */
+    @Transactional
+    public void deleteByUserId(Long userId) {
+        refreshTokenStore.deleteByUserId(userId);
+    }
+
+    /**
+     * Delete the refresh tokens of several users.
+     *
+     * @param userIds the IDs of the users
      * @return the number of tokens deleted
      */
     @Transactional
-    public int deleteByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return refreshTokenRepository.deleteByUser(user);
+    public int deleteByUserIds(Collection<Long> userIds) {
+        return refreshTokenStore.deleteByUserIds(userIds);
+    }
+
+    /**
+     * Make the next refresh for a user pick up changes to their name, email or roles.
+     *
+     * @param userId the ID of the user
+     */
+    public void refreshUser(Long userId) {
+        refreshTokenStore.refreshUser(userId);
+    }
+
+    /**
+     * Make the next refresh for several users pick up changes to their roles.
+     *
+     * @param userIds the IDs of the users
+     */
+    public void refreshUsers(Collection<Long> userIds) {
+        refreshTokenStore.refreshUsers(userIds);
     }
 }
\ No newline at end of file
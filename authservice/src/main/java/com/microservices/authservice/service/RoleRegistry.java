@@ -0,0 +1,139 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.model.ERole;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory registry of the fixed set of roles.
+ * All role rows are loaded once at startup, so resolving role names never touches the database.
+ */
+@Component
+public class RoleRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private volatile Map<ERole, Role> roles = Collections.emptyMap();
+
+    /**
+     * One reload at a time. Held across a database query, too long to pin a virtual thread's carrier with a monitor.
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Load all roles once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Reload all roles from the database.
+     *
+     * @return the loaded roles
+     */
+    public Map<ERole, Role> reload() {
+        reloadLock.lock();
+        try {
+            Map<ERole, Role> loaded = new EnumMap<>(ERole.class);
+            roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+
+            roles = Collections.unmodifiableMap(loaded);
+            logger.info("Loaded {} roles", loaded.size());
+            return roles;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Get all loaded roles.
+     *
+     * @return an unmodifiable map of roles by name
+     */
+    public Map<ERole, Role> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Get a role by name.
+     *
+     * @param name the role name
+     * @return the role
+     */
+    public Role getRole(ERole name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            // Roles may have been seeded after startup
+            role = reload().get(name);
+        }
+        if (role == null) {
+            throw new RuntimeException("Error: Role " + name.name().substring("ROLE_".length()) + " is not found.");
+        }
+
+        return role;
+    }
+
+    /**
+     * Resolve the roles requested at signup. Unknown names fall back to the user role,
+     * and no roles at all means the user role.
+     *
+     * @param strRoles the requested role names, may be null
+     * @return the resolved roles
+     */
+    public Set<Role> resolveSignupRoles(Set<String> strRoles) {
+        Set<Role> resolved = new HashSet<>();
+
+        if (strRoles == null || strRoles.isEmpty()) {
+            // Default role is USER
+            resolved.add(getRole(ERole.ROLE_USER));
+            return resolved;
+        }
+
+        strRoles.forEach(role -> resolved.add(getRole("admin".equals(role) ? ERole.ROLE_ADMIN : ERole.ROLE_USER)));
+        return resolved;
+    }
+
+    /**
+     * Resolve role names strictly, rejecting unknown names.
+     *
+     * @param strRoles the role names, either "admin" or "user"
+     * @return the resolved roles
+     * @throws UserOperationException if a name is not a known role
+     */
+    public Set<Role> resolveRoles(Set<String> strRoles) {
+        Set<Role> resolved = new HashSet<>();
+
+        strRoles.forEach(role -> {
+            switch (role) {
+                case "admin":
+                    resolved.add(getRole(ERole.ROLE_ADMIN));
+                    break;
+                case "user":
+                    resolved.add(getRole(ERole.ROLE_USER));
+                    break;
+                default:
+                    throw new UserOperationException("Invalid role: " + role);
+            }
+        });
+
+        return resolved;
+    }
+}
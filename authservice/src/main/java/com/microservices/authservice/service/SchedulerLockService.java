@@ -0,0 +1,60 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.repository.SchedulerLockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Time-bounded leases stored in the database, used to run a scheduled job on one instance at a time.
+ * A lease that is not released, for example because its holder crashed, expires on its own.
+ */
+@Service
+public class SchedulerLockService {
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private final String instanceId = hostName() + ":" + UUID.randomUUID();
+
+    /**
+     * Try to take the lease for a job.
+     *
+     * @param name the job name
+     * @param leaseTime how long the lease lasts if it is not released
+     * @return when the lease expires, or null if another instance holds it
+     */
+    public Instant tryAcquire(String name, Duration leaseTime) {
+        Instant now = Instant.now();
+        Instant lockedUntil = now.plus(leaseTime);
+
+        schedulerLockRepository.insertIfAbsent(name, now, instanceId);
+        return schedulerLockRepository.acquire(name, instanceId, now, lockedUntil) > 0 ? lockedUntil : null;
+    }
+
+    /**
+     * Release a lease held by this instance.
+     *
+     * @param name the job name
+     */
+    public void release(String name) {
+        schedulerLockRepository.release(name, instanceId, Instant.now());
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.config.ReplicaDataSourceConfig;
+import com.microservices.authservice.model.User;
+import com.microservices.authservice.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Evicts users from the Hibernate second-level cache after they are written with plain JDBC,
+ * which Hibernate cannot see. Inside a transaction the eviction happens after commit, so a concurrent
+ * load cannot put the old row back before the change is visible.
+ * <p>
+ * With a read replica, a read-only load may still see the old row until the replica catches up,
+ * so the eviction is repeated once the tolerated replication lag has passed.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+    private static final String USER_ROLES = User.class.getName() + ".roles";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReplicaDataSourceConfig replicaConfig;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /**
+     * Evict users and their role links, and drop cached username lookups.
+     *
+     * @param userIds the IDs of users that were changed or deleted
+     */
+    public void evictUsers(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        evict(cache -> {
+            for (Long id : ids) {
+                cache.evictEntityData(User.class, id);
+                cache.evictCollectionData(USER_ROLES, id);
+            }
+            cache.evictQueryRegion(UserRepository.FIND_BY_USERNAME_REGION);
+        });
+    }
+
+    /**
+     * Drop cached username lookups, e.g. after users were inserted and a cached "not found" went stale.
+     */
+    public void evictUsernameLookups() {
+        evict(cache -> cache.evictQueryRegion(UserRepository.FIND_BY_USERNAME_REGION));
+    }
+
+    private void evict(Consumer<Cache> eviction) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        Runnable evictNow = () -> {
+            eviction.accept(cache);
+            if (replicaConfig.isEnabled()) {
+                Duration settle = Duration.ofSeconds(replicaConfig.getMaxLagSeconds())
+                        .plusMillis(replicaConfig.getLagCheckIntervalMs());
+                taskScheduler.schedule(() -> eviction.accept(cache), Instant.now().plus(settle));
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow.run();
+                }
+            });
+        } else {
+            evictNow.run();
+        }
+    }
+}
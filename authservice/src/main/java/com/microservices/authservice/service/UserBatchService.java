@@ -0,0 +1,244 @@
+package com.microservices.authservice.service;
+
+import com.microservices.authservice.dto.response.UserBatchResponse;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.model.ERole;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.security.services.DisabledUserRegistry;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.authservice.service.search.UserSearchIndex;
+import com.microservices.authservice.sharding.Shards;
+import com.microservices.authservice.sharding.UserDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Service for user operations applied to many users at once.
+ * IDs are processed in chunks; each chunk runs a fixed number of set-based statements
+ * in its own transaction, whatever the number of users in it. With sharding enabled,
+ * a chunk only holds users from one shard.
+ */
+@Service
+public class UserBatchService {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private DisabledUserRegistry disabledUsers;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired(required = false)
+    private UserDirectory userDirectory;
+
+    @Value("${app.users.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.users.batch.max-ids:10000}")
+    private int maxIds;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public UserBatchService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replace the roles of many users.
+     *
+     * @param ids the user IDs
+     * @param roleNames the new roles, "admin" and/or "user"
+     * @return how many users were updated
+     */
+    public UserBatchResponse assignRoles(List<Long> ids, Set<String> roleNames) {
+        Set<Role> roles = roleRegistry.resolveRoles(roleNames);
+        List<Long> userIds = distinct(ids);
+
+        boolean keepsAdmin = roles.stream().anyMatch(role -> role.getName() == ERole.ROLE_ADMIN);
+        if (!keepsAdmin && userIds.contains(currentUserId())) {
+            throw new UserOperationException("Administrators cannot remove their own admin role");
+        }
+
+        return inChunks(userIds, (chunk, totals) -> {
+            Map<Long, String> users = findUsernames(chunk);
+            if (users.isEmpty()) {
+                return;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", users.keySet());
+
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (:ids)", params);
+            for (Role role : roles) {
+                jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT id, :roleId FROM users WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", users.keySet()).addValue("roleId", role.getId()));
+            }
+            totals.affected += users.size();
+
+            evict(users);
+            refreshTokenService.refreshUsers(users.keySet());
+        });
+    }
+
+    /**
+     * Enable or disable many users. Disabling also revokes their refresh tokens.
+     *
+     * @param ids the user IDs
+     * @param enabled the new state
+     * @return how many users changed state
+     */
+    public UserBatchResponse setEnabled(List<Long> ids, boolean enabled) {
+        List<Long> userIds = distinct(ids);
+        if (!enabled && userIds.contains(currentUserId())) {
+            throw new UserOperationException("Administrators cannot deactivate their own accounts");
+        }
+
+        return inChunks(userIds, (chunk, totals) -> {
+            Map<Long, String> users = findUsernames(chunk);
+            if (users.isEmpty()) {
+                return;
+            }
+
+            totals.affected += jdbcTemplate.update(
+                    "UPDATE users SET enabled = :enabled WHERE id IN (:ids) AND enabled <> :enabled",
+                    new MapSqlParameterSource("ids", users.keySet()).addValue("enabled", enabled));
+            if (enabled) {
+                disabledUsers.markEnabled(users.keySet());
+            } else {
+                totals.refreshTokensRevoked += refreshTokenService.deleteByUserIds(users.keySet());
+                disabledUsers.markDisabled(users.keySet());
+            }
+
+            evict(users);
+        });
+    }
+
+    /**
+     * Delete many users along with their roles and refresh tokens.
+     *
+     * @param ids the user IDs
+     * @return how many users were deleted
+     */
+    public UserBatchResponse deleteUsers(List<Long> ids) {
+        List<Long> userIds = distinct(ids);
+        if (userIds.contains(currentUserId())) {
+            throw new UserOperationException("Administrators cannot delete their own accounts");
+        }
+
+        return inChunks(userIds, (chunk, totals) -> {
+            Map<Long, String> users = findUsernames(chunk);
+            if (users.isEmpty()) {
+                return;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", users.keySet());
+
+            totals.refreshTokensRevoked += refreshTokenService.deleteByUserIds(users.keySet());
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (:ids)", params);
+            totals.affected += jdbcTemplate.update("DELETE FROM users WHERE id IN (:ids)", params);
+
+            evict(users);
+            disabledUsers.markDeleted(users.keySet());
+            searchIndex.removeAll(users.keySet());
+            if (userDirectory != null) {
+                releaseNames(List.copyOf(users.keySet()));
+            }
+        });
+    }
+
+    private UserBatchResponse inChunks(List<Long> userIds, ChunkOperation operation) {
+        Totals totals = new Totals();
+        shards.groupByShard(userIds).forEach((shard, shardIds) -> shards.runOn(shard, () -> {
+            for (int from = 0; from < shardIds.size(); from += chunkSize) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + chunkSize, shardIds.size()));
+                transactionTemplate.executeWithoutResult(status -> operation.apply(chunk, totals));
+            }
+        }));
+        return new UserBatchResponse(userIds.size(), totals.affected, totals.refreshTokensRevoked);
+    }
+
+    private Map<Long, String> findUsernames(List<Long> ids) {
+        Map<Long, String> users = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    users.put(rs.getLong("id"), rs.getString("username"));
+                });
+        return users;
+    }
+
+    /**
+     * Drop cached details and entities; both evictions take effect on commit.
+     */
+    private void evict(Map<Long, String> users) {
+        users.values().forEach(userDetailsService::evictUser);
+        secondLevelCacheEvictor.evictUsers(users.keySet());
+    }
+
+    /**
+     * Free the usernames and emails of deleted users in the shard directory once the deletion commits.
+     */
+    private void releaseNames(List<Long> ids) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDirectory.deleteAll(ids);
+            }
+        });
+    }
+
+    private List<Long> distinct(List<Long> ids) {
+        List<Long> userIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        userIds.removeIf(Objects::isNull);
+        if (userIds.size() > maxIds) {
+            throw new UserOperationException("At most " + maxIds + " users can be changed in one request");
+        }
+        return userIds;
+    }
+
+    private static Long currentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal instanceof UserDetailsImpl userDetails ? userDetails.getId() : null;
+    }
+
+    @FunctionalInterface
+    private interface ChunkOperation {
+        void apply(List<Long> chunk, Totals totals);
+    }
+
+    private static class Totals {
+        private int affected;
+        private int refreshTokensRevoked;
+    }
+}
@@ -0,0 +1,282 @@
+package com.microservices.authservice.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.authservice.datasource.StreamingQueryExecutor;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams every user and their roles straight from the database to an output stream.
+ * Rows are read through a forward-only, read-only cursor in fetch-size chunks and written
+ * as soon as each user is complete, so memory use does not depend on the number of users.
+ * With sharding enabled, shards are exported one after another, so users are ordered by ID within each shard.
+ */
+@Service
+public class UserExportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final String EXPORT_QUERY =
+            "SELECT u.id, u.username, u.email, r.name AS role_name " +
+            "FROM users u " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id " +
+            "ORDER BY u.id";
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Resolve a format from a request parameter.
+         *
+         * @param value the format name, case-insensitive
+         * @return the format
+         * @throws UserOperationException if the format is not supported
+         */
+        public static Format of(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new UserOperationException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    @Autowired
+    private StreamingQueryExecutor streamingQueries;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Shards shards;
+
+    @Value("${app.users.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private final MeterRegistry meterRegistry;
+
+    public UserExportService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Write all users to a stream.
+     *
+     * @param format the output format
+     * @param out the stream to write to; it is flushed but not closed
+     * @return the number of users written
+     */
+    public long export(Format format, OutputStream out) {
+        long startedAt = System.nanoTime();
+
+        long users;
+        try {
+            UserWriter writer = format == Format.CSV ? new CsvUserWriter(out) : new NdjsonUserWriter(out);
+            users = streamUsers(writer);
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        record(format, users, elapsedNanos);
+        logger.info("Exported {} users as {} in {} ms", users, format, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        return users;
+    }
+
+    private long streamUsers(UserWriter writer) {
+        long[] written = {0};
+        shards.forEach(shard -> written[0] += streamShard(writer));
+        return written[0];
+    }
+
+    private long streamShard(UserWriter writer) {
+        Long count = streamingQueries.query(EXPORT_QUERY, fetchSize,
+                rs -> {
+                    long written = 0;
+                    Long currentId = null;
+                    String username = null;
+                    String email = null;
+                    List<String> roles = new ArrayList<>();
+
+                    // Rows arrive ordered by user ID, one per role; emit each user once its rows are read
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        if (currentId == null || currentId != id) {
+                            if (currentId != null) {
+                                write(writer, currentId, username, email, roles);
+                                written++;
+                            }
+                            currentId = id;
+                            username = rs.getString("username");
+                            email = rs.getString("email");
+                            roles.clear();
+                        }
+                        String role = rs.getString("role_name");
+                        if (role != null) {
+                            roles.add(role);
+                        }
+                    }
+                    if (currentId != null) {
+                        write(writer, currentId, username, email, roles);
+                        written++;
+                    }
+                    return written;
+                });
+
+        return count != null ? count : 0;
+    }
+
+    private static void write(UserWriter writer, long id, String username, String email, List<String> roles)
+            throws SQLException {
+        try {
+            writer.write(id, username, email, roles);
+        } catch (IOException e) {
+            // Client went away; abort the query rather than reading rows nobody will receive
+            throw new SQLException("Export stream closed", e);
+        }
+    }
+
+    private void record(Format format, long users, long elapsedNanos) {
+        String tag = format.name().toLowerCase(Locale.ROOT);
+
+        Timer.builder("auth.users.export.duration")
+                .description("Time taken by a user export")
+                .tag("format", tag)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("auth.users.export.rows", "format", tag).increment(users);
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        if (seconds > 0) {
+            DistributionSummary.builder("auth.users.export.throughput")
+                    .description("Users written per second by an export")
+                    .baseUnit("rows/s")
+                    .tag("format", tag)
+                    .register(meterRegistry)
+                    .record(users / seconds);
+        }
+    }
+
+    private interface UserWriter {
+        void write(long id, String username, String email, List<String> roles) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    private class NdjsonUserWriter implements UserWriter {
+        private final JsonGenerator generator;
+
+        NdjsonUserWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(long id, String username, String email, List<String> roles) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("username", username);
+            generator.writeStringField("email", email);
+            generator.writeArrayFieldStart("roles");
+            for (String role : roles) {
+                generator.writeString(role);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; roles are separated by '|'.
+     */
+    private static class CsvUserWriter implements UserWriter {
+        private final Writer writer;
+
+        CsvUserWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,username,email,roles\r\n");
+        }
+
+        @Override
+        public void write(long id, String username, String email, List<String> roles) throws IOException {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(escape(username));
+            writer.write(',');
+            writer.write(escape(email));
+            writer.write(',');
+            writer.write(escape(String.join("|", roles)));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
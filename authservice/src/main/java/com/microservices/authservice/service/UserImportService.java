@@ -0,0 +1,413 @@
+package com.microservices.authservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.authservice.config.PasswordEncoderConfig;
+import com.microservices.authservice.config.UserImportConfig;
+import com.microservices.authservice.dto.request.SignupRequest;
+import com.microservices.authservice.dto.response.UserImportResponse;
+import com.microservices.authservice.dto.response.UserImportResult;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.model.ERole;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.security.crypto.PasswordEncoders;
+import com.microservices.authservice.service.identity.UserIdentityFilter;
+import com.microservices.authservice.service.search.UserSearchIndex;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users in bulk from a streamed JSON array or NDJSON document.
+ * <p>
+ * Rows are read incrementally and handled in chunks: each chunk is validated, checked for
+ * existing usernames and emails with one IN query per column, hashed on a dedicated pool
+ * across all cores, and inserted with JDBC batches in its own transaction. Users keep their
+ * IDENTITY ids: plain JDBC batches (rewritten into multi-row inserts by the driver) are not
+ * limited by it the way Hibernate batching is, and the new ids are read back per chunk.
+ * Imports are not available with sharding enabled, where ids come from the shard directory.
+ */
+@Service
+public class UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private UserIdentityFilter identityFilter;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired
+    private Shards shards;
+
+    private final UserImportConfig config;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Hashes without going through the request-path admission control; imports have their own pool.
+     */
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService hashPool;
+
+    /**
+     * One import at a time, so imports cannot multiply their load on the database and CPU.
+     */
+    private final Semaphore importPermit = new Semaphore(1);
+
+    private final Timer importTimer;
+    private final Counter createdCounter;
+    private final Counter failedCounter;
+
+    public UserImportService(UserImportConfig config,
+                             PasswordEncoderConfig passwordEncoderConfig,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = PasswordEncoders.delegating(passwordEncoderConfig);
+
+        int threads = config.getHashThreads() > 0 ? config.getHashThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importTimer = Timer.builder("auth.users.import.duration")
+                .description("Time taken by a bulk user import")
+                .register(meterRegistry);
+        this.createdCounter = Counter.builder("auth.users.import.rows")
+                .description("Rows processed by bulk user imports")
+                .tag("result", "created")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.users.import.rows")
+                .description("Rows processed by bulk user imports")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Import users from a JSON array or newline-delimited JSON objects with the same fields as signup.
+     *
+     * @param in the import document; read incrementally, not closed
+     * @return the per-row report
+     * @throws ServiceOverloadedException if another import is running
+     * @throws UserOperationException if sharding is enabled
+     */
+    public UserImportResponse importUsers(InputStream in) {
+        if (shards.isEnabled()) {
+            throw new UserOperationException("Bulk import is not supported while sharding is enabled");
+        }
+        if (!importPermit.tryAcquire()) {
+            throw new ServiceOverloadedException("Another user import is already running", 30);
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            return readAndImport(in);
+        } finally {
+            importTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            importPermit.release();
+        }
+    }
+
+    private UserImportResponse readAndImport(InputStream in) {
+        List<UserImportResult> results = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(config.getChunkSize());
+        boolean complete = true;
+        int index = 0;
+
+        try (MappingIterator<SignupRequest> rows = objectMapper.readerFor(SignupRequest.class).readValues(in)) {
+            while (rows.hasNextValue()) {
+                if (index >= config.getMaxRows()) {
+                    results.add(UserImportResult.failed(index, null,
+                            "Import is limited to " + config.getMaxRows() + " rows; remaining rows were not read"));
+                    complete = false;
+                    break;
+                }
+
+                chunk.add(new ImportRow(index++, rows.nextValue()));
+                if (chunk.size() >= config.getChunkSize()) {
+                    results.addAll(importChunk(chunk, seenUsernames, seenEmails));
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            results.add(UserImportResult.failed(index, null, "Malformed import data: " + e.getOriginalMessage()));
+            complete = false;
+        } catch (IOException e) {
+            results.add(UserImportResult.failed(index, null, "Could not read import data: " + e.getMessage()));
+            complete = false;
+        }
+
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, seenUsernames, seenEmails));
+        }
+
+        int created = (int) results.stream().filter(r -> UserImportResult.CREATED.equals(r.getStatus())).count();
+        int failed = results.size() - created;
+        createdCounter.increment(created);
+        failedCounter.increment(failed);
+        logger.info("User import finished: {} rows read, {} created, {} failed", index, created, failed);
+
+        return new UserImportResponse(index, created, failed, complete, results);
+    }
+
+    /**
+     * Validate, hash and insert one chunk of rows.
+     */
+    private List<UserImportResult> importChunk(List<ImportRow> chunk, Set<String> seenUsernames, Set<String> seenEmails) {
+        List<UserImportResult> results = new ArrayList<>(chunk.size());
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+
+        for (ImportRow row : chunk) {
+            String error = validate(row.request);
+            if (error == null) {
+                try {
+                    row.roles = resolveRoles(row.request.getRoles());
+                } catch (UserOperationException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error == null && !seenUsernames.add(lower(row.request.getUsername()))) {
+                error = "Duplicate username in import";
+            } else if (error == null && !seenEmails.add(lower(row.request.getEmail()))) {
+                error = "Duplicate email in import";
+            }
+
+            if (error == null) {
+                candidates.add(row);
+            } else {
+                results.add(UserImportResult.failed(row.index, row.username(), error));
+            }
+        }
+
+        // One query per column for the whole chunk instead of two per row
+        Set<String> takenUsernames = existing("username",
+                candidates.stream().map(row -> row.request.getUsername()).collect(Collectors.toList()));
+        Set<String> takenEmails = existing("email",
+                candidates.stream().map(row -> row.request.getEmail()).collect(Collectors.toList()));
+
+        List<ImportRow> accepted = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (takenUsernames.contains(lower(row.request.getUsername()))) {
+                results.add(UserImportResult.failed(row.index, row.request.getUsername(), "Username is already taken"));
+            } else if (takenEmails.contains(lower(row.request.getEmail()))) {
+                results.add(UserImportResult.failed(row.index, row.request.getUsername(), "Email is already in use"));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        hashPasswords(accepted);
+
+        try {
+            results.addAll(transactionTemplate.execute(status -> insert(accepted)));
+        } catch (DuplicateKeyException e) {
+            // A concurrent signup took a name or email after the check; retry row by row to isolate it
+            for (ImportRow row : accepted) {
+                results.add(insertOne(row));
+            }
+        }
+
+        results.sort(Comparator.comparingInt(UserImportResult::getIndex));
+        return results;
+    }
+
+    private UserImportResult insertOne(ImportRow row) {
+        try {
+            return transactionTemplate.execute(status -> insert(List.of(row))).get(0);
+        } catch (DuplicateKeyException e) {
+            return UserImportResult.failed(row.index, row.request.getUsername(), "Username or email is already in use");
+        }
+    }
+
+    /**
+     * Insert users and their roles with batched statements, then read back the generated IDs.
+     */
+    private List<UserImportResult> insert(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.request.getUsername());
+            ps.setString(2, row.request.getEmail());
+            ps.setString(3, row.passwordHash);
+        });
+
+        Map<String, Long> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                new MapSqlParameterSource("usernames",
+                        rows.stream().map(row -> row.request.getUsername()).collect(Collectors.toList())),
+                rs -> {
+                    ids.put(lower(rs.getString("username")), rs.getLong("id"));
+                });
+
+        List<Object[]> userRoles = new ArrayList<>();
+        List<UserImportResult> results = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Long id = ids.get(lower(row.request.getUsername()));
+            for (Role role : row.roles) {
+                userRoles.add(new Object[]{id, role.getId()});
+            }
+            results.add(UserImportResult.created(row.index, row.request.getUsername(), id));
+            identityFilter.add(row.request.getUsername(), row.request.getEmail());
+            searchIndex.index(id, row.request.getUsername(), row.request.getEmail());
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+        secondLevelCacheEvictor.evictUsernameLookups();
+
+        return results;
+    }
+
+    private void hashPasswords(List<ImportRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String rawPassword = row.request.getPassword();
+            hashes.add(hashPool.submit(() -> passwordEncoder.encode(rawPassword)));
+        }
+
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).passwordHash = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            hashes.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            hashes.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed during import", e.getCause());
+        }
+    }
+
+    /**
+     * Find which of the given values already exist in a unique column.
+     *
+     * @param column username or email
+     * @param values the values to look up
+     * @return the lowercased values that already exist
+     */
+    private Set<String> existing(String column, List<String> values) {
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        List<String> found = namedParameterJdbcTemplate.queryForList(
+                "SELECT " + column + " FROM users WHERE " + column + " IN (:values)",
+                new MapSqlParameterSource("values", values),
+                String.class);
+        return found.stream().map(UserImportService::lower).collect(Collectors.toSet());
+    }
+
+    /**
+     * Resolve the roles of an imported row. Unlike signup, unknown role names are rejected rather
+     * than mapped to the user role; a row without roles still gets the user role.
+     */
+    private Set<Role> resolveRoles(Set<String> roleNames) {
+        if (roleNames == null || roleNames.isEmpty()) {
+            return Set.of(roleRegistry.getRole(ERole.ROLE_USER));
+        }
+        return roleRegistry.resolveRoles(roleNames);
+    }
+
+    private String validate(SignupRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private static class ImportRow {
+        private final int index;
+        private final SignupRequest request;
+        private Set<Role> roles;
+        private String passwordHash;
+
+        ImportRow(int index, SignupRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+
+        String username() {
+            return request != null ? request.getUsername() : null;
+        }
+    }
+}
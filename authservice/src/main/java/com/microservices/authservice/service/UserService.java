@@ -2,26 +2,35 @@ package com.microservices.authservice.service;
 
 import com.microservices.authservice.dto.request.UserUpdateRequest;
 import com.microservices.authservice.dto.response.MessageResponse;
+import com.microservices.authservice.dto.response.UserPageResponse;
 import com.microservices.authservice.dto.response.UserResponse;
+import com.microservices.authservice.dto.response.UserSearchResponse;
 import com.microservices.authservice.exception.ResourceNotFoundException;
 import com.microservices.authservice.exception.UserOperationException;
 import com.microservices.authservice.model.ERole;
 import com.microservices.authservice.model.Role;
 import com.microservices.authservice.model.User;
-import com.microservices.authservice.repository.RoleRepository;
 import com.microservices.authservice.repository.UserRepository;
+import com.microservices.authservice.repository.projection.UserRoleRow;
+import com.microservices.authservice.security.services.DisabledUserRegistry;
 import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.authservice.service.identity.UserIdentityFilter;
+import com.microservices.authservice.service.search.UserSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Service for user management operations.
@@ -33,7 +42,7 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -41,15 +50,88 @@ public class UserService {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private DisabledUserRegistry disabledUsers;
+
+    @Autowired
+    private UserIdentityFilter identityFilter;
+
+    @Value("${app.users.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${app.users.page-size.max:200}")
+    private int maxPageSize;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Value("${app.users.search.limit.default:20}")
+    private int defaultSearchLimit;
+
+    @Value("${app.users.search.limit.max:100}")
+    private int maxSearchLimit;
+
+    /**
+     * Get one page of users, ordered by ID.
+     *
+     * @param afterId return users after this ID; null for the first page
+     * @param size requested page size; clamped to the configured maximum
+     * @param role optional role filter, e.g. "admin" or "ROLE_ADMIN"
+     * @param usernamePrefix optional username prefix filter
+     * @return the page and the cursor for the next one
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsers(Long afterId, Integer size, String role, String usernamePrefix) {
+        int pageSize = size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+        String roleName = StringUtils.hasText(role) ? parseRole(role).name() : null;
+        String prefix = StringUtils.hasText(usernamePrefix) ? escapeLike(usernamePrefix) : null;
+
+        List<UserRoleRow> rows = userRepository.findPage(afterId != null ? afterId : 0L, prefix, roleName, pageSize);
+
+        // Rows arrive ordered by user ID, one per role
+        List<UserResponse> page = new ArrayList<>(groupByUser(rows).values());
+        Long nextCursor = page.size() == pageSize ? page.get(page.size() - 1).getId() : null;
+
+        return new UserPageResponse(page, nextCursor, pageSize);
+    }
+
     /**
-     * Get all users.
+     * Find users whose username or email starts with a prefix, ignoring case. Matching runs against
+     * the in-memory index; only the matched users are then read from the database, by primary key.
      *
-     * @return list of all users
+     * @param query the prefix to match
+     * @param field "username" or "email"
+     * @param after the cursor returned by the previous page; null for the first page
+     * @param limit requested number of users; clamped to the configured maximum
+     * @return the matching users, ordered by the searched field
      */
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserResponse::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public UserSearchResponse searchUsers(String query, String field, String after, Integer limit) {
+        if (!StringUtils.hasText(query)) {
+            throw new UserOperationException("A search prefix is required");
+        }
+        int pageSize = limit == null || limit < 1 ? defaultSearchLimit : Math.min(limit, maxSearchLimit);
+
+        UserSearchIndex.Result result = searchIndex.search(UserSearchIndex.Field.of(field), query, after, pageSize);
+        if (result.getIds().isEmpty()) {
+            return new UserSearchResponse(new ArrayList<>(), null);
+        }
+
+        // Keep the index order; users deleted since they were matched are simply left out
+        Map<Long, UserResponse> found = groupByUser(userRepository.findRowsByIdIn(result.getIds()));
+        List<UserResponse> users = new ArrayList<>(result.getIds().size());
+        for (Long id : result.getIds()) {
+            UserResponse user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+
+        String nextCursor = result.getIds().size() >= pageSize ? result.getLastKey() : null;
+        return new UserSearchResponse(users, nextCursor);
     }
 
     /**
@@ -58,6 +140,7 @@ public class UserService {
      * @param id the user ID
      * @return the user response
      */
+    @Transactional(readOnly = true)
     public UserResponse getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
@@ -75,6 +158,7 @@ public class UserService {
     public UserResponse updateUser(Long id, UserUpdateRequest updateRequest) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
 
         // Update username if provided
         if (StringUtils.hasText(updateRequest.getUsername())
@@ -103,29 +187,20 @@ public class UserService {
 
         // Update roles if provided
         if (updateRequest.getRoles() != null && !updateRequest.getRoles().isEmpty()) {
-            Set<Role> roles = new HashSet<>();
-
-            updateRequest.getRoles().forEach(role -> {
-                switch (role) {
-                    case "admin":
-                        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role ADMIN is not found."));
-                        roles.add(adminRole);
-                        break;
-                    case "user":
-                        Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role USER is not found."));
-                        roles.add(userRole);
-                        break;
-                    default:
-                        throw new UserOperationException("Invalid role: " + role);
-                }
-            });
+            Set<Role> roles = roleRegistry.resolveRoles(updateRequest.getRoles());
 
             user.setRoles(roles);
         }
 
         userRepository.save(user);
+
+        // Drop cached credentials and roles under both the old and the new name
+        userDetailsService.evictUser(previousUsername);
+        userDetailsService.evictUser(user.getUsername());
+        refreshTokenService.refreshUser(user.getId());
+        identityFilter.add(user.getUsername(), user.getEmail());
+        searchIndex.index(user.getId(), user.getUsername(), user.getEmail());
+
         return new UserResponse(user);
     }
 
@@ -151,7 +226,35 @@ public class UserService {
 
         // Then delete the user
         userRepository.delete(user);
+        userDetailsService.evictUser(user.getUsername());
+        disabledUsers.markDeleted(List.of(id));
+        searchIndex.removeAll(List.of(id));
 
         return new MessageResponse("User deleted successfully");
     }
+
+    private static Map<Long, UserResponse> groupByUser(List<UserRoleRow> rows) {
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        for (UserRoleRow row : rows) {
+            UserResponse user = users.computeIfAbsent(row.getId(),
+                    id -> new UserResponse(id, row.getUsername(), row.getEmail(), new ArrayList<>()));
+            if (row.getRoleName() != null) {
+                user.getRoles().add(row.getRoleName());
+            }
+        }
+        return users;
+    }
+
+    private static ERole parseRole(String role) {
+        String name = role.trim().toUpperCase(Locale.ROOT);
+        try {
+            return ERole.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+        } catch (IllegalArgumentException e) {
+            throw new UserOperationException("Invalid role: " + role);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.microservices.authservice.service.identity;
+
+import com.microservices.authservice.config.IdentityFilterConfig;
+import com.microservices.authservice.datasource.StreamingQueryExecutor;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory Bloom filters of the usernames and emails already in use.
+ * A negative answer means the name is definitely free and needs no database query;
+ * a positive answer means it may be taken and must be confirmed against the database.
+ * <p>
+ * The filters are built at startup from a streaming scan of the users table, updated as users
+ * are created or renamed, and rebuilt periodically so names of deleted users stop matching.
+ * Until the first build completes every name is reported as possibly taken.
+ */
+@Component
+public class UserIdentityFilter {
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityFilter.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StreamingQueryExecutor streamingQueries;
+
+    @Autowired
+    private Shards shards;
+
+    private final IdentityFilterConfig config;
+
+    private volatile Filters current;
+
+    /**
+     * Filters being rebuilt; names added during the scan go to both so none are missed.
+     */
+    private volatile Filters building;
+
+    /**
+     * One rebuild at a time. Held for a whole table scan, too long to pin a virtual thread's carrier with a monitor.
+     */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Counter freeCounter;
+    private final Counter maybeTakenCounter;
+
+    public UserIdentityFilter(IdentityFilterConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+
+        this.freeCounter = Counter.builder("auth.identity.filter.checks")
+                .description("Availability checks by filter answer")
+                .tag("result", "free")
+                .register(meterRegistry);
+        this.maybeTakenCounter = Counter.builder("auth.identity.filter.checks")
+                .description("Availability checks by filter answer")
+                .tag("result", "maybe-taken")
+                .register(meterRegistry);
+        Gauge.builder("auth.identity.filter.false.positive.rate", this,
+                        filter -> filter.current != null ? filter.current.usernames.expectedFalsePositiveRate() : 1.0)
+                .description("Expected false positive rate of the username filter at its current fill")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (config.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.identity-filter.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${app.identity-filter.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        if (config.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Build fresh filters from the users table and swap them in.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+
+            long[] userCount = {0};
+            shards.forEach(shard -> {
+                Long shardCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+                userCount[0] += shardCount != null ? shardCount : 0;
+            });
+            long expected = Math.max(config.getExpectedInsertions(), userCount[0] * 2);
+
+            Filters next = new Filters(expected, config.getFalsePositiveRate());
+            building = next;
+            try {
+                shards.forEach(shard -> streamingQueries.query("SELECT username, email FROM users",
+                        config.getScanFetchSize(),
+                        rs -> {
+                            next.add(rs.getString("username"), rs.getString("email"));
+                        }));
+                current = next;
+            } finally {
+                building = null;
+            }
+
+            logger.info("Built identity filter with {} users in {} ms ({} bits, {} hashes)",
+                    next.usernames.approximateCount(), System.currentTimeMillis() - startedAt,
+                    next.usernames.getBitCount(), next.usernames.getHashCount());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Record a username and email that are now in use.
+     *
+     * @param username the username
+     * @param email the email
+     */
+    public void add(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.add(username, email);
+        }
+    }
+
+    /**
+     * @param username the username to check
+     * @return false if the username is definitely not in use
+     */
+    public boolean mightHaveUsername(String username) {
+        Filters filters = current;
+        return count(filters == null || filters.usernames.mightContain(normalize(username)));
+    }
+
+    /**
+     * @param email the email to check
+     * @return false if the email is definitely not in use
+     */
+    public boolean mightHaveEmail(String email) {
+        Filters filters = current;
+        return count(filters == null || filters.emails.mightContain(normalize(email)));
+    }
+
+    private boolean count(boolean maybeTaken) {
+        (maybeTaken ? maybeTakenCounter : freeCounter).increment();
+        return maybeTaken;
+    }
+
+    /**
+     * The database compares usernames and emails ignoring case and accents, so the filters fold both.
+     * Folding can only merge values, which adds false positives but never false negatives.
+     */
+    private static String normalize(String value) {
+        String folded = Normalizer.normalize(value.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        Filters(long expectedInsertions, double falsePositiveRate) {
+            this.usernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        void add(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+}
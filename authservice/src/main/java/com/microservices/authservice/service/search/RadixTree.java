@@ -0,0 +1,262 @@
+package com.microservices.authservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compressed trie mapping string keys to user IDs, walked in key order for prefix queries.
+ * Each edge holds a run of characters, so a key costs one node at most plus one split,
+ * and a lookup touches one node per branching point rather than one per character.
+ * <p>
+ * Not thread-safe; callers guard it with a read/write lock.
+ */
+class RadixTree {
+    private static final long[] NO_IDS = new long[0];
+    private static final char[] NO_FIRSTS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * A key matched by a prefix query and the IDs stored under it.
+     */
+    static class Match {
+        final String key;
+        final long[] ids;
+
+        Match(String key, long[] ids) {
+            this.key = key;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * @return the number of key/ID pairs in the tree
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Store an ID under a key. Storing the same pair twice has no effect.
+     */
+    void put(String key, long id) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.find(key.charAt(i));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.insertChild(-slot - 1, leaf);
+                node = leaf;
+                break;
+            }
+
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.firsts = new char[] {child.label.charAt(0)};
+                middle.children = new Node[] {child};
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+
+        if (node.addId(id)) {
+            size++;
+        }
+    }
+
+    /**
+     * Remove an ID from a key, pruning nodes that no longer lead anywhere.
+     */
+    void remove(String key, long id) {
+        if (remove(root, key, 0, id)) {
+            size--;
+        }
+    }
+
+    private boolean remove(Node node, String key, int i, long id) {
+        if (i == key.length()) {
+            return node.removeId(id);
+        }
+
+        int slot = node.find(key.charAt(i));
+        if (slot < 0) {
+            return false;
+        }
+        Node child = node.children[slot];
+        if (!key.startsWith(child.label, i) || !remove(child, key, i + child.label.length(), id)) {
+            return false;
+        }
+
+        if (child.ids.length == 0) {
+            if (child.children.length == 0) {
+                node.removeChild(slot);
+            } else if (child.children.length == 1) {
+                // Merge a pass-through node into its only child; the edge's first character is unchanged
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.children[slot] = only;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collect keys starting with a prefix, in key order.
+     *
+     * @param prefix the prefix keys must start with
+     * @param after only keys greater than this are returned; null to start at the first key
+     * @param limit stop once this many IDs have been collected; the last key is never cut short
+     * @return the matching keys and their IDs
+     */
+    List<Match> collect(String prefix, String after, int limit) {
+        List<Match> matches = new ArrayList<>();
+
+        // Walk down to the node whose path first covers the whole prefix
+        Node node = root;
+        StringBuilder path = new StringBuilder();
+        int i = 0;
+        while (i < prefix.length()) {
+            int slot = node.find(prefix.charAt(i));
+            if (slot < 0) {
+                return matches;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, prefix, i);
+            if (common < child.label.length() && i + common < prefix.length()) {
+                return matches;
+            }
+            path.append(child.label);
+            node = child;
+            i += common;
+        }
+
+        collect(node, path, after, limit, new int[1], matches);
+        return matches;
+    }
+
+    private void collect(Node node, StringBuilder path, String after, int limit, int[] found, List<Match> matches) {
+        if (after != null) {
+            int cmp = compareToBound(path, after);
+            if (cmp < 0) {
+                // This whole subtree sorts before the cursor
+                return;
+            }
+            if (cmp > 0) {
+                after = null;
+            }
+        }
+
+        if (node.ids.length > 0 && after == null) {
+            matches.add(new Match(path.toString(), node.ids.clone()));
+            found[0] += node.ids.length;
+        }
+
+        for (Node child : node.children) {
+            if (found[0] >= limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, after, limit, found, matches);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * Compare a node path with the cursor: negative if every key below the path sorts at or before it,
+     * zero if the path is a prefix of the cursor, positive if every key below the path sorts after it.
+     */
+    private static int compareToBound(CharSequence path, String after) {
+        int n = Math.min(path.length(), after.length());
+        for (int i = 0; i < n; i++) {
+            char a = path.charAt(i);
+            char b = after.charAt(i);
+            if (a != b) {
+                return a < b ? -1 : 1;
+            }
+        }
+        return path.length() <= after.length() ? 0 : 1;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int n = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        private String label;
+        private long[] ids = NO_IDS;
+        private char[] firsts = NO_FIRSTS;
+        private Node[] children = NO_CHILDREN;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int find(char c) {
+            return Arrays.binarySearch(firsts, c);
+        }
+
+        void insertChild(int slot, Node child) {
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            newFirsts[slot] = child.label.charAt(0);
+            newChildren[slot] = child;
+            System.arraycopy(firsts, slot, newFirsts, slot + 1, firsts.length - slot);
+            System.arraycopy(children, slot, newChildren, slot + 1, children.length - slot);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void removeChild(int slot) {
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(firsts, slot + 1, newFirsts, slot, firsts.length - slot - 1);
+            System.arraycopy(children, slot + 1, newChildren, slot, children.length - slot - 1);
+            firsts = newFirsts.length == 0 ? NO_FIRSTS : newFirsts;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        boolean addId(long id) {
+            for (long existing : ids) {
+                if (existing == id) {
+                    return false;
+                }
+            }
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = id;
+            return true;
+        }
+
+        boolean removeId(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] newIds = new long[ids.length - 1];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    ids = newIds.length == 0 ? NO_IDS : newIds;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
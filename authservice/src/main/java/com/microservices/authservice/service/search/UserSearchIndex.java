@@ -0,0 +1,290 @@
+package com.microservices.authservice.service.search;
+
+import com.microservices.authservice.datasource.StreamingQueryExecutor;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory prefix index over usernames and emails, answering type-ahead searches with user IDs.
+ * <p>
+ * The index is loaded at startup from a streaming scan of the users table and then kept current by
+ * the services that create, rename and delete users. Changes are applied once their transaction commits.
+ * Changes made while the scan runs are replayed over its result, so the scan never overwrites them.
+ * A failed scan does not stop startup; it is retried every app.users.search.load-retry-ms until it succeeds,
+ * and searches are refused until then.
+ */
+@Component
+public class UserSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    /**
+     * Which value a search matches against.
+     */
+    public enum Field {
+        USERNAME, EMAIL;
+
+        public static Field of(String value) {
+            try {
+                return Field.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new UserOperationException("Unsupported search field: " + value);
+            }
+        }
+    }
+
+    /**
+     * IDs of the users matched by a search, in key order, and the key to resume after.
+     */
+    public static class Result {
+        private final List<Long> ids;
+        private final String lastKey;
+
+        Result(List<Long> ids, String lastKey) {
+            this.ids = ids;
+            this.lastKey = lastKey;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public String getLastKey() {
+            return lastKey;
+        }
+    }
+
+    @Autowired
+    private StreamingQueryExecutor streamingQueries;
+
+    @Autowired
+    private Shards shards;
+
+    @Value("${app.users.search.scan-fetch-size:1000}")
+    private int scanFetchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * One scan at a time, so a retry never starts while the startup scan is still running.
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private State state = new State();
+
+    /**
+     * Changes seen while the startup scan runs, or null when no scan is running.
+     */
+    private List<Consumer<State>> journal;
+
+    private volatile boolean ready;
+
+    public UserSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.users.search.index.size", this, UserSearchIndex::size)
+                .description("Users in the prefix search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        tryLoad();
+    }
+
+    @Scheduled(initialDelayString = "${app.users.search.load-retry-ms:30000}",
+            fixedDelayString = "${app.users.search.load-retry-ms:30000}")
+    public void retryLoad() {
+        if (!ready) {
+            tryLoad();
+        }
+    }
+
+    private void tryLoad() {
+        if (!loadLock.tryLock()) {
+            return;
+        }
+        try {
+            scan();
+        } catch (RuntimeException e) {
+            logger.warn("Could not build user search index, retrying later: {}", e.getMessage());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Build the index from the users table and swap it in.
+     */
+    private void scan() {
+        long startedAt = System.currentTimeMillis();
+
+        withWriteLock(() -> journal = new ArrayList<>());
+        State loaded = new State();
+        try {
+            shards.forEach(shard -> streamingQueries.query("SELECT id, username, email FROM users", scanFetchSize,
+                    rs -> {
+                        loaded.put(rs.getLong("id"), rs.getString("username"), rs.getString("email"));
+                    }));
+        } catch (RuntimeException e) {
+            withWriteLock(() -> journal = null);
+            throw e;
+        }
+
+        withWriteLock(() -> {
+            journal.forEach(change -> change.accept(loaded));
+            journal = null;
+            state = loaded;
+        });
+        ready = true;
+
+        logger.info("Built user search index with {} users in {} ms",
+                size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Find users whose username or email starts with a prefix, ignoring case.
+     *
+     * @param field the value to match against
+     * @param prefix the prefix to match
+     * @param after resume after this key, as returned by a previous search; null for the first page
+     * @param limit the maximum number of users to return
+     * @return the matching user IDs in key order
+     */
+    public Result search(Field field, String prefix, String after, int limit) {
+        if (!ready) {
+            throw new ServiceOverloadedException("User search index is still loading", 5);
+        }
+
+        List<RadixTree.Match> matches;
+        lock.readLock().lock();
+        try {
+            RadixTree tree = field == Field.USERNAME ? state.usernames : state.emails;
+            matches = tree.collect(normalize(prefix), after != null ? normalize(after) : null, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (RadixTree.Match match : matches) {
+            for (long id : match.ids) {
+                ids.add(id);
+            }
+        }
+        String lastKey = matches.isEmpty() ? null : matches.get(matches.size() - 1).key;
+        return new Result(ids, lastKey);
+    }
+
+    /**
+     * Add a user, or replace the names indexed for an existing one.
+     *
+     * @param id the user ID
+     * @param username the current username
+     * @param email the current email
+     */
+    public void index(Long id, String username, String email) {
+        apply(target -> target.put(id, username, email));
+    }
+
+    /**
+     * Remove users from the index.
+     *
+     * @param ids the IDs of deleted users
+     */
+    public void removeAll(Collection<Long> ids) {
+        List<Long> removed = new ArrayList<>(ids);
+        apply(target -> removed.forEach(target::remove));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        Runnable write = () -> withWriteLock(() -> {
+            change.accept(state);
+            if (journal != null) {
+                journal.add(change);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The database compares names ignoring case, so the index does too.
+     */
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class State {
+        private final RadixTree usernames = new RadixTree();
+        private final RadixTree emails = new RadixTree();
+
+        /**
+         * Keys each user is indexed under, to unlink them on rename or delete.
+         */
+        private final Map<Long, String[]> names = new HashMap<>();
+
+        void put(Long id, String username, String email) {
+            remove(id);
+            String[] keys = {normalize(username), normalize(email)};
+            usernames.put(keys[0], id);
+            emails.put(keys[1], id);
+            names.put(id, keys);
+        }
+
+        void remove(Long id) {
+            String[] keys = names.remove(id);
+            if (keys != null) {
+                usernames.remove(keys[0], id);
+                emails.remove(keys[1], id);
+            }
+        }
+    }
+}
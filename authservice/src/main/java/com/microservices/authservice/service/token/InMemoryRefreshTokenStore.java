@@ -0,0 +1,339 @@
+package com.microservices.authservice.service.token;
+
+import com.microservices.authservice.config.RefreshTokenStoreConfig;
+import com.microservices.authservice.service.RefreshSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Refresh token store that serves lookups from memory and uses MySQL for durability only.
+ * <p>
+ * New tokens are written behind: they go into memory immediately and are queued per user, so a user
+ * who logs in several times between flushes costs one row write. A background thread writes the queue
+ * in JDBC batches. Deletes are written through in the caller's transaction, so a logout or user
+ * deletion is never lost or overtaken by a queued write. Tokens not in memory, such as ones issued by
+ * another instance, are read through from the database. On startup all unexpired tokens are loaded.
+ * <p>
+ * Memory is per instance: a logout on one instance does not drop a copy another instance has already
+ * loaded. Run this store on a single instance or route refreshes by user.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRefreshTokenStore.class);
+
+    private final RefreshTokenDao refreshTokenDao;
+    private final RefreshTokenStoreConfig config;
+
+    private final Map<String, RefreshSession> sessionsByHash = new ConcurrentHashMap<>();
+    private final Map<Long, String> hashByUser = new ConcurrentHashMap<>();
+    private final Map<Long, RefreshSession> pendingWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Guard the two maps and the write queue for one user so they always agree.
+     */
+    private final Object[] stripes;
+
+    /**
+     * Serializes database writes, so a write-through delete never races a flush of the same user.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-token-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter flushedCounter;
+    private final Counter flushFailureCounter;
+
+    public InMemoryRefreshTokenStore(RefreshTokenDao refreshTokenDao,
+                                     RefreshTokenStoreConfig config,
+                                     MeterRegistry meterRegistry) {
+        this.refreshTokenDao = refreshTokenDao;
+        this.config = config;
+
+        this.stripes = new Object[Math.max(1, config.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+
+        this.hitCounter = Counter.builder("auth.refresh.tokens.lookups")
+                .description("Refresh token lookups by where they were answered")
+                .tag("source", "memory")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("auth.refresh.tokens.lookups")
+                .description("Refresh token lookups by where they were answered")
+                .tag("source", "database")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("auth.refresh.tokens.flushed")
+                .description("Refresh tokens written to the database by the write-behind flusher")
+                .register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("auth.refresh.tokens.flush.failures")
+                .description("Write-behind batches that failed and were queued again")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.tokens.memory", sessionsByHash, Map::size)
+                .description("Refresh tokens held in memory")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.tokens.pending", pendingWrites, Map::size)
+                .description("Refresh tokens waiting to be written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load persisted tokens, then start the background flusher and expiry sweep.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recover();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                config.getFlushIntervalMs(), config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::evictExpired,
+                config.getEvictionIntervalMs(), config.getEvictionIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(RefreshSession session) {
+        Long userId = session.getUserId();
+        synchronized (stripe(userId)) {
+            String previousHash = hashByUser.put(userId, session.getTokenHash());
+            if (previousHash != null && !previousHash.equals(session.getTokenHash())) {
+                sessionsByHash.remove(previousHash);
+            }
+            sessionsByHash.put(session.getTokenHash(), session);
+            pendingWrites.put(userId, session);
+        }
+
+        if (pendingWrites.size() >= config.getFlushBatchSize()) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    @Override
+    public Optional<RefreshSession> findByTokenHash(String tokenHash) {
+        RefreshSession session = sessionsByHash.get(tokenHash);
+        if (session != null) {
+            hitCounter.increment();
+            return Optional.of(session);
+        }
+
+        missCounter.increment();
+        Optional<RefreshSession> loaded = refreshTokenDao.findByTokenHash(tokenHash);
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long userId = loaded.get().getUserId();
+        synchronized (stripe(userId)) {
+            // A queued write or a newer token in memory supersedes what the database returned
+            String currentHash = hashByUser.get(userId);
+            if (pendingWrites.containsKey(userId) || (currentHash != null && !currentHash.equals(tokenHash))) {
+                return Optional.empty();
+            }
+            hashByUser.put(userId, tokenHash);
+            sessionsByHash.put(tokenHash, loaded.get());
+        }
+        return loaded;
+    }
+
+    @Override
+    public void deleteByTokenHash(String tokenHash) {
+        writeLock.lock();
+        try {
+            RefreshSession session = sessionsByHash.get(tokenHash);
+            if (session != null) {
+                Long userId = session.getUserId();
+                synchronized (stripe(userId)) {
+                    if (hashByUser.remove(userId, tokenHash)) {
+                        sessionsByHash.remove(tokenHash);
+                        pendingWrites.remove(userId, session);
+                    }
+                }
+            }
+            refreshTokenDao.deleteByTokenHash(tokenHash);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        writeLock.lock();
+        try {
+            forget(userId);
+            refreshTokenDao.deleteByUserIds(List.of(userId));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        writeLock.lock();
+        try {
+            userIds.forEach(this::forget);
+            return refreshTokenDao.deleteByUserIds(new ArrayList<>(userIds));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void refreshUser(Long userId) {
+        writeLock.lock();
+        try {
+            RefreshSession pending = pendingWrites.remove(userId);
+            if (pending != null) {
+                // Persist the queued token first so the next lookup can read it back with fresh user details
+                refreshTokenDao.upsertAll(List.of(pending), 1);
+            }
+            synchronized (stripe(userId)) {
+                String tokenHash = hashByUser.remove(userId);
+                if (tokenHash != null) {
+                    sessionsByHash.remove(tokenHash);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write all queued tokens to the database. Batches that fail are queued again unless
+     * a newer token for the same user has been queued meanwhile.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+
+            List<RefreshSession> batch = new ArrayList<>();
+            for (Long userId : pendingWrites.keySet()) {
+                RefreshSession session = pendingWrites.remove(userId);
+                if (session != null) {
+                    batch.add(session);
+                }
+            }
+
+            int batchSize = Math.max(1, config.getFlushBatchSize());
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                List<RefreshSession> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+                try {
+                    refreshTokenDao.upsertAll(chunk, batchSize);
+                    flushedCounter.increment(chunk.size());
+                } catch (RuntimeException e) {
+                    flushFailureCounter.increment();
+                    logger.warn("Failed to write {} refresh tokens, will retry: {}", chunk.size(), e.getMessage());
+                    chunk.forEach(session -> pendingWrites.putIfAbsent(session.getUserId(), session));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Load every unexpired token from the database, without replacing anything already in memory.
+     *
+     * @return the number of tokens loaded
+     */
+    public int recover() {
+        int loaded = 0;
+        for (RefreshSession session : refreshTokenDao.loadActive(Instant.now())) {
+            Long userId = session.getUserId();
+            synchronized (stripe(userId)) {
+                if (!hashByUser.containsKey(userId) && !pendingWrites.containsKey(userId)) {
+                    hashByUser.put(userId, session.getTokenHash());
+                    sessionsByHash.put(session.getTokenHash(), session);
+                    loaded++;
+                }
+            }
+        }
+        logger.info("Loaded {} refresh tokens into memory", loaded);
+        return loaded;
+    }
+
+    /**
+     * Drop expired tokens from memory. Their rows are removed by the purge job.
+     */
+    public void evictExpired() {
+        for (RefreshSession session : sessionsByHash.values()) {
+            if (session.isExpired()) {
+                synchronized (stripe(session.getUserId())) {
+                    if (hashByUser.remove(session.getUserId(), session.getTokenHash())) {
+                        sessionsByHash.remove(session.getTokenHash());
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return sessionsByHash.size();
+    }
+
+    public int pendingSize() {
+        return pendingWrites.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void forget(Long userId) {
+        synchronized (stripe(userId)) {
+            String tokenHash = hashByUser.remove(userId);
+            if (tokenHash != null) {
+                sessionsByHash.remove(tokenHash);
+            }
+            pendingWrites.remove(userId);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Refresh token flush failed: {}", e.getMessage());
+        }
+    }
+
+    private Object stripe(Long userId) {
+        return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+    }
+}
@@ -0,0 +1,60 @@
+package com.microservices.authservice.service.token;
+
+import com.microservices.authservice.repository.RefreshTokenRepository;
+import com.microservices.authservice.repository.projection.RefreshTokenRow;
+import com.microservices.authservice.service.RefreshSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Refresh token store that reads and writes MySQL directly through {@link RefreshTokenRepository}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Override
+    public void save(RefreshSession session) {
+        refreshTokenRepository.upsert(session.getUserId(), session.getTokenHash(), session.getExpiryDate());
+    }
+
+    @Override
+    public Optional<RefreshSession> findByTokenHash(String tokenHash) {
+        List<RefreshTokenRow> rows = refreshTokenRepository.findRowsByTokenHash(tokenHash);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshTokenRow first = rows.get(0);
+        List<String> roleNames = rows.stream()
+                .map(row -> row.getRoleName() != null ? row.getRoleName().name() : null)
+                .collect(Collectors.toList());
+
+        return Optional.of(RefreshSession.of(tokenHash, first.getUserId(), first.getUsername(), first.getEmail(),
+                roleNames, first.getExpiryDate()));
+    }
+
+    @Override
+    public void deleteByTokenHash(String tokenHash) {
+        refreshTokenRepository.deleteByTokenHash(tokenHash);
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public int deleteByUserIds(Collection<Long> userIds) {
+        return userIds.isEmpty() ? 0 : refreshTokenRepository.deleteByUserIdIn(userIds);
+    }
+}
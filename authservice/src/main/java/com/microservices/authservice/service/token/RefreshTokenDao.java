@@ -0,0 +1,164 @@
+package com.microservices.authservice.service.token;
+
+import com.microservices.authservice.service.RefreshSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC access to refresh_tokens for the in-memory store: bulk loads on startup
+ * and batched writes from the write-behind flusher.
+ * Expiry dates are read and written in UTC, the same way Hibernate maps {@link Instant}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "memory")
+public class RefreshTokenDao {
+
+    private static final String SELECT_SESSIONS =
+            "SELECT t.user_id, t.token_hash, t.expiry_date, u.username, u.email, r.name AS role_name " +
+            "FROM refresh_tokens t " +
+            "JOIN users u ON u.id = t.user_id " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id ";
+
+    private static final String UPSERT =
+            "INSERT INTO refresh_tokens (user_id, token_hash, expiry_date) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE token_hash = VALUES(token_hash), expiry_date = VALUES(expiry_date)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Load every token that has not expired yet.
+     *
+     * @param now the current time
+     * @return the active sessions
+     */
+    public List<RefreshSession> loadActive(Instant now) {
+        SessionCollector collector = new SessionCollector();
+        jdbcTemplate.query(SELECT_SESSIONS + "WHERE t.expiry_date > ?",
+                ps -> ps.setTimestamp(1, Timestamp.from(now), utcCalendar()),
+                collector);
+        return collector.sessions();
+    }
+
+    /**
+     * Load a single token by its digest.
+     *
+     * @param tokenHash the digest of the token
+     * @return the session, or empty if the token is unknown
+     */
+    public Optional<RefreshSession> findByTokenHash(String tokenHash) {
+        SessionCollector collector = new SessionCollector();
+        jdbcTemplate.query(SELECT_SESSIONS + "WHERE t.token_hash = ?",
+                ps -> ps.setString(1, tokenHash),
+                collector);
+        return collector.sessions().stream().findFirst();
+    }
+
+    /**
+     * Insert or replace each user's token in batches.
+     *
+     * @param sessions the tokens to write, at most one per user
+     * @param batchSize rows per JDBC batch
+     */
+    public void upsertAll(List<RefreshSession> sessions, int batchSize) {
+        jdbcTemplate.batchUpdate(UPSERT, sessions, batchSize, (ps, session) -> {
+            ps.setLong(1, session.getUserId());
+            ps.setString(2, session.getTokenHash());
+            ps.setTimestamp(3, Timestamp.from(session.getExpiryDate()), utcCalendar());
+        });
+    }
+
+    /**
+     * Delete the tokens held by the given users.
+     *
+     * @param userIds the IDs of the users
+     * @return the number of tokens deleted
+     */
+    public int deleteByUserIds(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(",", Collections.nCopies(userIds.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN (" + placeholders + ")",
+                userIds.toArray());
+    }
+
+    /**
+     * Delete a token by its digest.
+     *
+     * @param tokenHash the digest of the token
+     * @return the number of tokens deleted
+     */
+    public int deleteByTokenHash(String tokenHash) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE token_hash = ?", tokenHash);
+    }
+
+    private static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * Folds the one-row-per-role result set into one session per token.
+     */
+    private static class SessionCollector implements RowCallbackHandler {
+        private final Map<String, SessionRow> rows = new LinkedHashMap<>();
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String tokenHash = rs.getString("token_hash");
+            SessionRow row = rows.get(tokenHash);
+            if (row == null) {
+                row = new SessionRow(
+                        rs.getLong("user_id"),
+                        tokenHash,
+                        rs.getString("username"),
+                        rs.getString("email"),
+                        rs.getTimestamp("expiry_date", utcCalendar()).toInstant());
+                rows.put(tokenHash, row);
+            }
+            row.roleNames.add(rs.getString("role_name"));
+        }
+
+        List<RefreshSession> sessions() {
+            return rows.values().stream()
+                    .map(row -> RefreshSession.of(row.tokenHash, row.userId, row.username, row.email,
+                            row.roleNames, row.expiryDate))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static class SessionRow {
+        private final Long userId;
+        private final String tokenHash;
+        private final String username;
+        private final String email;
+        private final Instant expiryDate;
+        private final List<String> roleNames = new ArrayList<>();
+
+        SessionRow(Long userId, String tokenHash, String username, String email, Instant expiryDate) {
+            this.userId = userId;
+            this.tokenHash = tokenHash;
+            this.username = username;
+            this.email = email;
+            this.expiryDate = expiryDate;
+        }
+    }
+}
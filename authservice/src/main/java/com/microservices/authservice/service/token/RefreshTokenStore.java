@@ -0,0 +1,68 @@
+package com.microservices.authservice.service.token;
+
+import com.microservices.authservice.service.RefreshSession;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Storage for refresh tokens, keyed by token digest. Each user holds at most one token.
+ * The implementation is chosen with app.refresh-token.store.type: jpa (default) or memory.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Store a user's token, replacing any token they already hold.
+     *
+     * @param session the new token and its owner
+     */
+    void save(RefreshSession session);
+
+    /**
+     * Resolve a token digest to its session.
+     *
+     * @param tokenHash the digest of the token
+     * @return the session, or empty if the token is unknown
+     */
+    Optional<RefreshSession> findByTokenHash(String tokenHash);
+
+    /**
+     * Delete a token by its digest.
+     *
+     * @param tokenHash the digest of the token
+     */
+    void deleteByTokenHash(String tokenHash);
+
+    /**
+     * Delete the token held by a user, if any.
+     *
+     * @param userId the ID of the user
+     */
+    void deleteByUserId(Long userId);
+
+    /**
+     * Delete the tokens held by several users in one statement.
+     *
+     * @param userIds the IDs of the users
+     * @return the number of tokens deleted from the database
+     */
+    int deleteByUserIds(Collection<Long> userIds);
+
+    /**
+     * Forget anything held about a user whose name, email or roles changed,
+     * so the next refresh sees the new values.
+     *
+     * @param userId the ID of the user
+     */
+    default void refreshUser(Long userId) {
+    }
+
+    /**
+     * Forget anything held about several users, see {@link #refreshUser(Long)}.
+     *
+     * @param userIds the IDs of the users
+     */
+    default void refreshUsers(Collection<Long> userIds) {
+        userIds.forEach(this::refreshUser);
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservices.authservice.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard that database work on the current thread is routed to.
+ * Set through {@link Shards}; when unset, work goes to shard 0.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the shard selected for the current thread, or null if none was selected
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.microservices.authservice.sharding;
+
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.model.User;
+import com.microservices.authservice.repository.RefreshTokenRepository;
+import com.microservices.authservice.repository.UserRepository;
+import com.microservices.authservice.repository.projection.RefreshTokenRow;
+import com.microservices.authservice.repository.projection.UserRoleRow;
+import com.microservices.authservice.service.SecondLevelCacheEvictor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Routes repository calls to the shard that holds the user they concern.
+ * <p>
+ * Calls keyed by user ID go to that user's shard. Lookups by username or email are resolved to an ID
+ * through the {@link UserDirectory} first, and new users get their ID from the directory before they are
+ * written. Listings and lookups by token digest query every shard in parallel and merge the results.
+ * Calls made while a shard is already selected, e.g. inside {@link Shards#forEach}, run there unchanged.
+ * <p>
+ * Every repository method must have a route: the application refuses to start if a repository declares
+ * a method this aspect does not know.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardRoutingAspect {
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, username, email, password, enabled) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    static final Set<String> USER_METHODS = Set.of("existsByUsername", "existsByEmail", "findByUsername",
+            "findByEmail", "findById", "updatePasswordIfUnchanged", "delete", "save", "findRowsByIdIn", "findPage");
+
+    static final Set<String> REFRESH_TOKEN_METHODS = Set.of("upsert", "deleteByUserId", "deleteByUserIdIn",
+            "findRowsByTokenHash", "deleteByTokenHash");
+
+    /**
+     * Purges page through one shard at a time and must say which.
+     */
+    static final Set<String> SHARD_LOCAL_REFRESH_TOKEN_METHODS = Set.of("findExpiredIds", "deleteByIdIn");
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShardRoutingAspect(DataSource dataSource) {
+        requireRouted(UserRepository.class, USER_METHODS);
+        Set<String> refreshTokenMethods = new HashSet<>(REFRESH_TOKEN_METHODS);
+        refreshTokenMethods.addAll(SHARD_LOCAL_REFRESH_TOKEN_METHODS);
+        requireRouted(RefreshTokenRepository.class, refreshTokenMethods);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @throws IllegalStateException if the repository has a method without a route
+     */
+    static void requireRouted(Class<?> repository, Set<String> routed) {
+        for (Method method : repository.getMethods()) {
+            if (!routed.contains(method.getName())) {
+                throw new IllegalStateException(repository.getSimpleName() + "." + method.getName()
+                        + " is not routed to a shard; add a route in ShardRoutingAspect");
+            }
+        }
+    }
+
+    @Around("target(com.microservices.authservice.repository.UserRepository)")
+    public Object routeUserRepository(ProceedingJoinPoint pjp) throws Throwable {
+        if (ShardContext.current() != null) {
+            return pjp.proceed();
+        }
+
+        Object[] args = pjp.getArgs();
+        String method = pjp.getSignature().getName();
+        return switch (method) {
+            case "existsByUsername" -> userDirectory.findIdByUsername((String) args[0]) != null;
+            case "existsByEmail" -> userDirectory.findIdByEmail((String) args[0]) != null;
+            case "findByUsername" -> findByName(userDirectory.findIdByUsername((String) args[0]), pjp);
+            case "findByEmail" -> findByName(userDirectory.findIdByEmail((String) args[0]), pjp);
+            case "findById", "updatePasswordIfUnchanged" -> proceedOn(shards.shardOf((Long) args[0]), pjp, args);
+            case "delete" -> delete(((User) args[0]).getId(), pjp);
+            case "save" -> save((User) args[0], pjp);
+            case "findRowsByIdIn" -> findRowsByIdIn(pjp);
+            case "findPage" -> findPage(pjp);
+            // Unreachable: the constructor checked that every method is routed
+            default -> throw new IllegalStateException("UserRepository." + method + " is not routed to a shard");
+        };
+    }
+
+    @Around("target(com.microservices.authservice.repository.RefreshTokenRepository)")
+    public Object routeRefreshTokenRepository(ProceedingJoinPoint pjp) throws Throwable {
+        if (ShardContext.current() != null) {
+            return pjp.proceed();
+        }
+
+        Object[] args = pjp.getArgs();
+        String method = pjp.getSignature().getName();
+        return switch (method) {
+            case "upsert", "deleteByUserId" -> proceedOn(shards.shardOf((Long) args[0]), pjp, args);
+            case "deleteByUserIdIn" -> deleteByUserIdIn(pjp);
+            case "findRowsByTokenHash" -> findRowsByTokenHash(pjp);
+            case "deleteByTokenHash" -> sum(fanOutProceed(allShards(), shard -> args, pjp));
+            case "findExpiredIds", "deleteByIdIn" -> throw new IllegalStateException(
+                    "RefreshTokenRepository." + method + " must run inside Shards.forEach or Shards.callOn");
+            default -> throw new IllegalStateException("RefreshTokenRepository." + method + " is not routed to a shard");
+        };
+    }
+
+    private Object findByName(Long id, ProceedingJoinPoint pjp) throws Throwable {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return proceedOn(shards.shardOf(id), pjp, pjp.getArgs());
+    }
+
+    private Object save(User user, ProceedingJoinPoint pjp) throws Throwable {
+        if (user.getId() == null) {
+            return create(user);
+        }
+
+        Long id = user.getId();
+        String[] previous = userDirectory.findNames(id);
+        if (previous != null && !(previous[0].equals(user.getUsername()) && previous[1].equals(user.getEmail()))) {
+            userDirectory.update(id, user.getUsername(), user.getEmail());
+            Runnable undo = () -> userDirectory.update(id, previous[0], previous[1]);
+            boolean deferred = undoOnRollback(undo);
+            try {
+                return proceedOn(shards.shardOf(id), pjp, pjp.getArgs());
+            } catch (Throwable e) {
+                if (!deferred) {
+                    undo.run();
+                }
+                throw e;
+            }
+        }
+        return proceedOn(shards.shardOf(id), pjp, pjp.getArgs());
+    }
+
+    /**
+     * Insert a new user with an ID from the directory. Hibernate's IDENTITY generation would let each shard
+     * number its own users, so the rows are written directly and the entity is returned with its ID set.
+     */
+    private User create(User user) {
+        long id = userDirectory.allocate(user.getUsername(), user.getEmail());
+        Runnable undo = () -> userDirectory.deleteAll(List.of(id));
+        boolean deferred = undoOnRollback(undo);
+        try {
+            shards.runOn(shards.shardOf(id), () -> {
+                jdbcTemplate.update(INSERT_USER, id, user.getUsername(), user.getEmail(),
+                        user.getPassword(), user.isEnabled());
+                List<Object[]> roles = new ArrayList<>();
+                for (Role role : user.getRoles()) {
+                    roles.add(new Object[]{id, role.getId()});
+                }
+                if (!roles.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roles);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (!deferred) {
+                undo.run();
+            }
+            throw e;
+        }
+
+        user.setId(id);
+        // The insert bypassed Hibernate, so cached "no such user" lookups are not invalidated for us
+        secondLevelCacheEvictor.evictUsernameLookups();
+        return user;
+    }
+
+    private Object delete(Long id, ProceedingJoinPoint pjp) throws Throwable {
+        Object result = proceedOn(shards.shardOf(id), pjp, pjp.getArgs());
+        afterCommit(() -> userDirectory.deleteAll(List.of(id)));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object findRowsByIdIn(ProceedingJoinPoint pjp) throws Throwable {
+        Map<Integer, List<Long>> groups = shards.groupByShard((Collection<Long>) pjp.getArgs()[0]);
+        List<UserRoleRow> rows = new ArrayList<>();
+        for (Object shardRows : fanOutProceed(groups.keySet(), shard -> new Object[]{groups.get(shard)}, pjp)) {
+            rows.addAll((List<UserRoleRow>) shardRows);
+        }
+        return rows;
+    }
+
+    /**
+     * Each shard returns its first page after the cursor; the merged page is the lowest IDs among them.
+     */
+    @SuppressWarnings("unchecked")
+    private Object findPage(ProceedingJoinPoint pjp) throws Throwable {
+        Object[] args = pjp.getArgs();
+        int limit = (Integer) args[3];
+
+        List<UserRoleRow> rows = new ArrayList<>();
+        for (Object shardRows : fanOutProceed(allShards(), shard -> args, pjp)) {
+            rows.addAll((List<UserRoleRow>) shardRows);
+        }
+        rows.sort(Comparator.comparing(UserRoleRow::getId));
+
+        List<UserRoleRow> page = new ArrayList<>();
+        Set<Long> users = new HashSet<>();
+        for (UserRoleRow row : rows) {
+            if (users.add(row.getId()) && users.size() > limit) {
+                break;
+            }
+            page.add(row);
+        }
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object deleteByUserIdIn(ProceedingJoinPoint pjp) throws Throwable {
+        Map<Integer, List<Long>> groups = shards.groupByShard((Collection<Long>) pjp.getArgs()[0]);
+        if (groups.size() == 1) {
+            Map.Entry<Integer, List<Long>> group = groups.entrySet().iterator().next();
+            return proceedOn(group.getKey(), pjp, new Object[]{group.getValue()});
+        }
+        return sum(fanOutProceed(groups.keySet(), shard -> new Object[]{groups.get(shard)}, pjp));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object findRowsByTokenHash(ProceedingJoinPoint pjp) throws Throwable {
+        Object[] args = pjp.getArgs();
+        for (Object shardRows : fanOutProceed(allShards(), shard -> args, pjp)) {
+            if (!((List<RefreshTokenRow>) shardRows).isEmpty()) {
+                return shardRows;
+            }
+        }
+        return List.of();
+    }
+
+    private Object proceedOn(int shard, ProceedingJoinPoint pjp, Object[] args) throws Throwable {
+        try {
+            return shards.callOn(shard, () -> proceed(pjp, args));
+        } catch (ProceedException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<Object> fanOutProceed(Collection<Integer> targets, Function<Integer, Object[]> argsFor,
+                                       ProceedingJoinPoint pjp) throws Throwable {
+        try {
+            return shards.fanOut(targets, shard -> proceed(pjp, argsFor.apply(shard)));
+        } catch (ProceedException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object proceed(ProceedingJoinPoint pjp, Object[] args) {
+        try {
+            return pjp.proceed(args);
+        } catch (Throwable e) {
+            throw new ProceedException(e);
+        }
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> all = new ArrayList<>(shards.count());
+        for (int shard = 0; shard < shards.count(); shard++) {
+            all.add(shard);
+        }
+        return all;
+    }
+
+    private static int sum(List<Object> counts) {
+        int total = 0;
+        for (Object count : counts) {
+            total += (Integer) count;
+        }
+        return total;
+    }
+
+    /**
+     * @return true if the undo will run when the current transaction rolls back, false if there is
+     * no transaction and the caller must undo on failure itself
+     */
+    private static boolean undoOnRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    undo.run();
+                }
+            }
+        });
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Carries a repository exception out of a {@link Shards} callback so it can be rethrown unchanged.
+     */
+    private static class ProceedException extends RuntimeException {
+        ProceedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.microservices.authservice.sharding;
+
+import com.microservices.authservice.config.ShardingConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for running database work on a shard.
+ * <p>
+ * Users live on the shard given by a hash of their ID. Work for one user runs through {@link #callOn},
+ * which also pins the surrounding transaction to that shard: a transaction holds a single connection, so
+ * touching a second shard inside it is refused. Work over every shard runs through {@link #fanOut}, in
+ * parallel and outside the caller's transaction.
+ * <p>
+ * With sharding disabled there is a single shard and every method runs its work directly on the caller's
+ * thread and transaction, so callers need no separate code path.
+ */
+@Component
+public class Shards implements DisposableBean {
+    private static final Object TRANSACTION_SHARD = new Object();
+
+    private final boolean enabled;
+    private final int count;
+    private final ExecutorService fanOutExecutor;
+
+    public Shards(ShardingConfig config) {
+        this.enabled = config.isEnabled();
+        if (enabled && config.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled is set but no shards are configured");
+        }
+        this.count = enabled ? config.getShards().size() : 1;
+
+        if (count > 1) {
+            int threads = config.getFanOutThreads() > 0 ? config.getFanOutThreads() : count;
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.fanOutExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "shard-fan-out-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.fanOutExecutor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of shards, 1 when sharding is disabled
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Stable shard of a user. Depends only on the ID and the number of shards.
+     *
+     * @param userId the user ID
+     * @return the shard index
+     */
+    public int shardOf(long userId) {
+        if (count == 1) {
+            return 0;
+        }
+        // SplitMix64 finalizer, so sequential IDs spread evenly
+        long h = userId;
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h = h ^ (h >>> 31);
+        return (int) Math.floorMod(h, (long) count);
+    }
+
+    /**
+     * Split user IDs by the shard that holds them.
+     *
+     * @param userIds the user IDs
+     * @return the IDs on each shard, by shard index
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> userIds) {
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long id : userIds) {
+            groups.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return groups;
+    }
+
+    /**
+     * Run work on one shard. Inside a transaction, the transaction is pinned to that shard.
+     *
+     * @param shard the shard index
+     * @param action the work
+     * @return the work's result
+     * @throws IllegalStateException if the current transaction already runs on another shard
+     */
+    public <T> T callOn(int shard, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        pinTransaction(shard);
+        return ShardContext.callOn(shard, action);
+    }
+
+    /**
+     * Run work on one shard, without a result.
+     *
+     * @param shard the shard index
+     * @param action the work
+     */
+    public void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run work on every shard in turn, on the caller's thread.
+     *
+     * @param action the work, given the shard index
+     */
+    public void forEach(IntConsumer action) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            runOn(shard, () -> action.accept(current));
+        }
+    }
+
+    /**
+     * Run work on every shard in parallel. Each shard's work runs on a pool thread, outside
+     * the caller's transaction.
+     *
+     * @param action the work, given the shard index
+     * @return the results, by shard index
+     */
+    public <T> List<T> fanOut(Function<Integer, T> action) {
+        List<Integer> all = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            all.add(shard);
+        }
+        return fanOut(all, action);
+    }
+
+    /**
+     * Run work on some shards in parallel, outside the caller's transaction.
+     *
+     * @param shards the shard indexes
+     * @param action the work, given the shard index
+     * @return the results, in the order of the given shards
+     */
+    public <T> List<T> fanOut(Collection<Integer> shards, Function<Integer, T> action) {
+        List<T> results = new ArrayList<>(shards.size());
+        if (fanOutExecutor == null) {
+            for (Integer shard : shards) {
+                results.add(callOn(shard, () -> action.apply(shard)));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (Integer shard : shards) {
+            futures.add(fanOutExecutor.submit(() -> ShardContext.callOn(shard, () -> action.apply(shard))));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    private void pinTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Integer pinned = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
+        if (pinned == null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+                }
+            });
+        } else if (pinned != shard) {
+            throw new IllegalStateException("The current transaction runs on shard " + pinned
+                    + " and cannot also use shard " + shard);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.microservices.authservice.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Global table mapping every username and email to its user ID, kept on shard 0.
+ * <p>
+ * It hands out user IDs, so IDs are unique across shards and a user's shard is known before the
+ * user row is written. Its unique keys make usernames and emails unique across shards, and it resolves
+ * lookups by name to the one shard that holds the user. Rows are three short columns, so the table
+ * stays small enough to be served from the buffer pool.
+ * <p>
+ * Statements run in auto-commit on their own connection, outside any shard transaction; callers undo
+ * their directory changes when the shard transaction rolls back.
+ */
+public class UserDirectory {
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public UserDirectory(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Create the directory table if it does not exist yet.
+     */
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS user_directory (" +
+                "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "username VARCHAR(20) NOT NULL, " +
+                "email VARCHAR(50) NOT NULL, " +
+                "CONSTRAINT uk_user_directory_username UNIQUE (username), " +
+                "CONSTRAINT uk_user_directory_email UNIQUE (email))");
+    }
+
+    /**
+     * Register users that already exist on a shard, e.g. when sharding is switched on over an existing database.
+     * Users already in the directory are left alone.
+     *
+     * @param shard the shard's own DataSource
+     */
+    public void backfill(DataSource shard) {
+        JdbcTemplate shardTemplate = new JdbcTemplate(shard);
+        shardTemplate.setFetchSize(BACKFILL_BATCH_SIZE);
+
+        List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        shardTemplate.query("SELECT id, username, email FROM users", rs -> {
+            batch.add(new Object[]{rs.getLong("id"), rs.getString("username"), rs.getString("email")});
+            if (batch.size() == BACKFILL_BATCH_SIZE) {
+                insertMissing(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            insertMissing(batch);
+        }
+    }
+
+    /**
+     * Reserve a username and email and allocate the user's ID.
+     *
+     * @param username the username
+     * @param email the email
+     * @return the new user ID
+     * @throws org.springframework.dao.DuplicateKeyException if the username or email is taken on any shard
+     */
+    public long allocate(String username, String email) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO user_directory (username, email) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, username);
+            ps.setString(2, email);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * @param username the username
+     * @return the ID of the user with that username, or null
+     */
+    public Long findIdByUsername(String username) {
+        return single(jdbcTemplate.queryForList("SELECT id FROM user_directory WHERE username = ?", Long.class, username));
+    }
+
+    /**
+     * @param email the email
+     * @return the ID of the user with that email, or null
+     */
+    public Long findIdByEmail(String email) {
+        return single(jdbcTemplate.queryForList("SELECT id FROM user_directory WHERE email = ?", Long.class, email));
+    }
+
+    /**
+     * @param id the user ID
+     * @return the username and email registered for the user, or null
+     */
+    public String[] findNames(long id) {
+        List<String[]> names = jdbcTemplate.query("SELECT username, email FROM user_directory WHERE id = ?",
+                (rs, rowNum) -> new String[]{rs.getString("username"), rs.getString("email")}, id);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    /**
+     * Change a user's registered username and email.
+     *
+     * @param id the user ID
+     * @param username the new username
+     * @param email the new email
+     * @throws org.springframework.dao.DuplicateKeyException if the username or email belongs to another user
+     */
+    public void update(long id, String username, String email) {
+        jdbcTemplate.update("UPDATE user_directory SET username = ?, email = ? WHERE id = ?", username, email, id);
+    }
+
+    /**
+     * Release the names of deleted users.
+     *
+     * @param ids the user IDs
+     */
+    public void deleteAll(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM user_directory WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", ids));
+        }
+    }
+
+    private void insertMissing(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO user_directory (id, username, email) VALUES (?, ?, ?)", rows);
+    }
+
+    private static Long single(List<Long> ids) {
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.microservices.authservice.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC access for the reactive /api/auth stack.
+ * <p>
+ * JPA stays in place for scheduled jobs, caches and startup loading, so the R2DBC transaction manager is
+ * kept out of the context: registering it as a bean would leave {@code @Transactional} with two candidates.
+ * Reactive code runs its transactions through the operator below instead.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDataConfig {
+
+    public ReactiveDataConfig(Environment environment) {
+        // The reactive repositories read and write the primary database's tables directly
+        if (environment.getProperty("app.sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("The reactive stack does not support app.sharding");
+        }
+        if ("memory".equals(environment.getProperty("app.refresh-token.store.type"))) {
+            throw new IllegalStateException("The reactive stack requires the jpa refresh token store");
+        }
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,70 @@
+package com.microservices.authservice.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.authservice.config.JwtConfig;
+import com.microservices.authservice.reactive.repository.ReactiveUserRepository;
+import com.microservices.authservice.reactive.security.JwtAuthenticationWebFilter;
+import com.microservices.authservice.security.jwt.JwtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spring Security settings for the reactive stack. Mirrors {@link com.microservices.authservice.config.SecurityConfig}:
+ * stateless, bearer JWTs, the same public endpoints and the same 401 body.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveSecurityConfig.class);
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtUtils jwtUtils, JwtConfig jwtConfig,
+                                                         ReactiveUserRepository userRepository, ObjectMapper objectMapper) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler(objectMapper)))
+                .authorizeExchange(auth ->
+                        auth.pathMatchers("/api/auth/login", "/api/auth/availability", "/tool", "/learn-more").permitAll()
+                                .anyExchange().authenticated()
+                )
+                .addFilterAt(new JwtAuthenticationWebFilter(jwtUtils, jwtConfig, userRepository),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    private static ServerAuthenticationEntryPoint unauthorizedHandler(ObjectMapper objectMapper) {
+        return (exchange, authException) -> {
+            logger.error("Unauthorized error: {}", authException.getMessage());
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("status", HttpStatus.UNAUTHORIZED.value());
+            body.put("error", "Unauthorized");
+            body.put("message", authException.getMessage());
+            body.put("path", exchange.getRequest().getPath().value());
+
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return Mono.fromCallable(() -> exchange.getResponse().bufferFactory().wrap(objectMapper.writeValueAsBytes(body)))
+                    .flatMap(buffer -> exchange.getResponse().writeWith(Mono.just(buffer)));
+        };
+    }
+}
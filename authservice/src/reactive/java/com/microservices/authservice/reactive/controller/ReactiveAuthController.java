@@ -0,0 +1,117 @@
+package com.microservices.authservice.reactive.controller;
+
+import com.microservices.authservice.dto.request.LoginRequest;
+import com.microservices.authservice.dto.request.RefreshTokenRequest;
+import com.microservices.authservice.dto.request.SignupRequest;
+import com.microservices.authservice.dto.response.AvailabilityResponse;
+import com.microservices.authservice.dto.response.JwtResponse;
+import com.microservices.authservice.dto.response.MessageResponse;
+import com.microservices.authservice.reactive.service.ReactiveAuthService;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Reactive REST controller for authentication operations, with the same routes and payloads
+ * as {@link com.microservices.authservice.controller.AuthController}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+    @Autowired
+    private ReactiveAuthService authService;
+
+    /**
+     * Authenticate a user and generate JWT tokens.
+     *
+     * @param loginRequest login credentials
+     * @param exchange the current exchange, for the client address
+     * @return JWT response with tokens and user info
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<JwtResponse>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                              ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String clientIp = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : null;
+        return authService.authenticateUser(loginRequest, clientIp).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Register a new user account.
+     *
+     * @param signupRequest signup information
+     * @return response message
+     */
+    @PostMapping("/signup")
+    public Mono<ResponseEntity<MessageResponse>> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
+        return authService.registerUser(signupRequest).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Check whether a username and/or email is still available for signup.
+     *
+     * @param username the username to check (optional)
+     * @param email the email to check (optional)
+     * @return availability of each value given
+     */
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<AvailabilityResponse>> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        return authService.checkAvailability(username, email).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Refresh an access token using a refresh token.
+     *
+     * @param request refresh token request
+     * @return JWT response with new access token
+     */
+    @PostMapping("/refresh-token")
+    public Mono<ResponseEntity<JwtResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return authService.refreshToken(request.getRefreshToken()).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Log out the current user.
+     *
+     * @param userDetails the authenticated user
+     * @return response message
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<MessageResponse>> logoutUser(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return authService.logoutUser(userDetails.getId(), userDetails.getUsername()).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/validate")
+    public ResponseEntity<Map<String, Boolean>> validateToken(@RequestBody Map<String, String> tokenMap) {
+        String token = tokenMap.get("token");
+        boolean isValid = authService.validateToken(token);
+        return ResponseEntity.ok(Map.of("valid", isValid));
+    }
+
+    /**
+     * Get information about the current user.
+     *
+     * @param authentication the current authentication
+     * @return user details
+     */
+    @GetMapping("/me")
+    public ResponseEntity<UserDetailsImpl> getCurrentUser(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.ok(userDetails);
+    }
+}
@@ -0,0 +1,139 @@
+package com.microservices.authservice.reactive.exception;
+
+import com.microservices.authservice.exception.LoginThrottledException;
+import com.microservices.authservice.exception.ResourceNotFoundException;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import com.microservices.authservice.exception.TokenRefreshException;
+import com.microservices.authservice.exception.UniqueKeyViolations;
+import com.microservices.authservice.exception.UserOperationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exception handler for the reactive stack. Produces the same status codes and bodies as
+ * {@link com.microservices.authservice.exception.GlobalExceptionHandler}.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    /**
+     * Handle validation errors for request bodies.
+     *
+     * @param ex the exception
+     * @param exchange the current exchange
+     * @return a ResponseEntity instance
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleWebExchangeBindException(WebExchangeBindException ex, ServerWebExchange exchange) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", new Date());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("errors", errors);
+        response.put("path", path(exchange));
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Object> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(TokenRefreshException.class)
+    public ResponseEntity<Object> handleTokenRefreshException(TokenRefreshException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.FORBIDDEN, "Forbidden", ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(UserOperationException.class)
+    public ResponseEntity<Object> handleUserOperationException(UserOperationException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), exchange);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolationException(DataIntegrityViolationException ex,
+                                                                        ServerWebExchange exchange) {
+        if (!UniqueKeyViolations.isUniqueKeyViolation(ex)) {
+            return handleGlobalException(ex, exchange);
+        }
+        return error(HttpStatus.CONFLICT, "Conflict", "Username or email is already in use", exchange);
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<Object> handleBadCredentialsException(BadCredentialsException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid username or password", exchange);
+    }
+
+    @ExceptionHandler(DisabledException.class)
+    public ResponseEntity<Object> handleDisabledException(DisabledException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.FORBIDDEN, "Forbidden", "Account is disabled", exchange);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Object> handleServiceOverloadedException(ServiceOverloadedException ex,
+                                                                   ServerWebExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+        return new ResponseEntity<>(body(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), exchange),
+                headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Object> handleLoginThrottledException(LoginThrottledException ex, ServerWebExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+
+        return new ResponseEntity<>(body(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage(), exchange),
+                headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Object> handleGlobalException(Exception ex, ServerWebExchange exchange) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", ex.getMessage(), exchange);
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, String error, String message,
+                                                ServerWebExchange exchange) {
+        return new ResponseEntity<>(body(status, error, message, exchange), status);
+    }
+
+    private static Map<String, Object> body(HttpStatus status, String error, String message,
+                                            ServerWebExchange exchange) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", status.value());
+        body.put("error", error);
+        body.put("message", message);
+        body.put("path", path(exchange));
+        return body;
+    }
+
+    /**
+     * Same format as WebRequest#getDescription(false) on the servlet stack.
+     */
+    private static String path(ServerWebExchange exchange) {
+        return "uri=" + exchange.getRequest().getPath().value();
+    }
+}
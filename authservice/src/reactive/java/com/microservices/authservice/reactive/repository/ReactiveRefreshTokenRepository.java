@@ -0,0 +1,101 @@
+package com.microservices.authservice.reactive.repository;
+
+import com.microservices.authservice.service.RefreshSession;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking access to the refresh_tokens table over R2DBC. Runs the same statements as
+ * {@link com.microservices.authservice.repository.RefreshTokenRepository}.
+ * <p>
+ * Expiry dates are read and written as local date-times in the JVM time zone, the way the JDBC
+ * driver stores the Instants written by Hibernate, so tokens issued by either stack are interchangeable.
+ */
+@Repository
+public class ReactiveRefreshTokenRepository {
+    private static final String UPSERT =
+            "INSERT INTO refresh_tokens (user_id, token_hash, expiry_date) " +
+            "VALUES (:userId, :tokenHash, :expiryDate) " +
+            "ON DUPLICATE KEY UPDATE token_hash = VALUES(token_hash), expiry_date = VALUES(expiry_date)";
+
+    private static final String FIND_BY_TOKEN_HASH =
+            "SELECT u.id AS user_id, u.username, u.email, r.name AS role_name, t.expiry_date " +
+            "FROM refresh_tokens t " +
+            "JOIN users u ON u.id = t.user_id " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id " +
+            "WHERE t.token_hash = :tokenHash";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveRefreshTokenRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Store a user's refresh token, replacing any token they already hold.
+     *
+     * @param userId the ID of the token owner
+     * @param tokenHash the digest of the new token
+     * @param expiryDate when the new token expires
+     * @return the number of rows affected
+     */
+    public Mono<Long> upsert(Long userId, String tokenHash, Instant expiryDate) {
+        return databaseClient.sql(UPSERT)
+                .bind("userId", userId)
+                .bind("tokenHash", tokenHash)
+                .bind("expiryDate", LocalDateTime.ofInstant(expiryDate, ZoneId.systemDefault()))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Resolve a token digest to its owner's identity, roles and the token expiry in a single query.
+     *
+     * @param tokenHash the digest of the token
+     * @return the session, or empty if the token is unknown
+     */
+    public Mono<RefreshSession> findSession(String tokenHash) {
+        return databaseClient.sql(FIND_BY_TOKEN_HASH)
+                .bind("tokenHash", tokenHash)
+                .fetch()
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    Map<String, Object> first = rows.get(0);
+                    List<String> roleNames = new ArrayList<>();
+                    rows.forEach(row -> roleNames.add((String) row.get("role_name")));
+
+                    Instant expiryDate = ((LocalDateTime) first.get("expiry_date"))
+                            .atZone(ZoneId.systemDefault())
+                            .toInstant();
+                    return Mono.just(RefreshSession.of(tokenHash, ((Number) first.get("user_id")).longValue(),
+                            (String) first.get("username"), (String) first.get("email"), roleNames, expiryDate));
+                });
+    }
+
+    public Mono<Long> deleteByTokenHash(String tokenHash) {
+        return databaseClient.sql("DELETE FROM refresh_tokens WHERE token_hash = :tokenHash")
+                .bind("tokenHash", tokenHash)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByUserId(Long userId) {
+        return databaseClient.sql("DELETE FROM refresh_tokens WHERE user_id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+}
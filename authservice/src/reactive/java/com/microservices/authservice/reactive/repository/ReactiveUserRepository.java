@@ -0,0 +1,132 @@
+package com.microservices.authservice.reactive.repository;
+
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Non-blocking access to the users and user_roles tables over R2DBC.
+ */
+@Repository
+public class ReactiveUserRepository {
+    private static final String FIND_BY_USERNAME =
+            "SELECT u.id, u.username, u.email, u.password, u.enabled, r.name AS role_name " +
+            "FROM users u " +
+            "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+            "LEFT JOIN roles r ON r.id = ur.role_id " +
+            "WHERE u.username = :username";
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, email, password, enabled) VALUES (:username, :email, :password, TRUE)";
+
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (:userId, :roleId)";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient, TransactionalOperator reactiveTransactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = reactiveTransactionalOperator;
+    }
+
+    /**
+     * Load a user with their roles in a single query.
+     *
+     * @param username the username
+     * @return the user details including the password hash, or empty if there is no such user
+     */
+    public Mono<UserDetailsImpl> findByUsername(String username) {
+        return databaseClient.sql(FIND_BY_USERNAME)
+                .bind("username", username)
+                .map((row, metadata) -> new UserRoleRecord(row))
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty() ? Mono.empty() : Mono.just(toUserDetails(rows)));
+    }
+
+    public Mono<Boolean> existsByUsername(String username) {
+        return exists("SELECT 1 FROM users WHERE username = :value LIMIT 1", username);
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return exists("SELECT 1 FROM users WHERE email = :value LIMIT 1", email);
+    }
+
+    /**
+     * Insert a user and their roles in one transaction.
+     *
+     * @param username the username
+     * @param email the email
+     * @param passwordHash the encoded password
+     * @param roleIds the IDs of the user's roles
+     * @return the new user's ID
+     */
+    public Mono<Long> insert(String username, String email, String passwordHash, Collection<Long> roleIds) {
+        Mono<Long> insert = databaseClient.sql(INSERT_USER)
+                .filter((statement, next) -> next.execute(statement.returnGeneratedValues("id")))
+                .bind("username", username)
+                .bind("email", email)
+                .bind("password", passwordHash)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .flatMap(id -> Flux.fromIterable(roleIds)
+                        .concatMap(roleId -> databaseClient.sql(INSERT_USER_ROLE)
+                                .bind("userId", id)
+                                .bind("roleId", roleId)
+                                .fetch()
+                                .rowsUpdated())
+                        .then(Mono.just(id)));
+
+        return transactionalOperator.transactional(insert);
+    }
+
+    private Mono<Boolean> exists(String sql, String value) {
+        return databaseClient.sql(sql)
+                .bind("value", value)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    private static UserDetailsImpl toUserDetails(List<UserRoleRecord> rows) {
+        UserRoleRecord first = rows.get(0);
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (UserRoleRecord row : rows) {
+            if (row.roleName != null) {
+                authorities.add(new SimpleGrantedAuthority(row.roleName));
+            }
+        }
+        return new UserDetailsImpl(first.id, first.username, first.email, first.password, authorities, first.enabled);
+    }
+
+    /**
+     * One row of the user lookup: the user joined with one of their roles.
+     */
+    private static class UserRoleRecord {
+        private final Long id;
+        private final String username;
+        private final String email;
+        private final String password;
+        private final boolean enabled;
+        private final String roleName;
+
+        UserRoleRecord(Row row) {
+            this.id = row.get("id", Long.class);
+            this.username = row.get("username", String.class);
+            this.email = row.get("email", String.class);
+            this.password = row.get("password", String.class);
+            this.enabled = Boolean.TRUE.equals(row.get("enabled", Boolean.class));
+            this.roleName = row.get("role_name", String.class);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.microservices.authservice.reactive.security;
+
+import com.microservices.authservice.config.JwtConfig;
+import com.microservices.authservice.reactive.repository.ReactiveUserRepository;
+import com.microservices.authservice.security.jwt.JwtUtils;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.jwt.JwtVerification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.microservices.authservice.security.jwt.AuthTokenFilter}.
+ * A valid bearer token of an enabled user authenticates the exchange; anything else leaves it
+ * anonymous and authorization decides.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationWebFilter.class);
+
+    private final JwtUtils jwtUtils;
+    private final JwtConfig jwtConfig;
+    private final ReactiveUserRepository userRepository;
+
+    public JwtAuthenticationWebFilter(JwtUtils jwtUtils, JwtConfig jwtConfig, ReactiveUserRepository userRepository) {
+        this.jwtUtils = jwtUtils;
+        this.jwtConfig = jwtConfig;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String jwt = parseJwt(exchange);
+        JwtVerification verification = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+        if (verification == null || !verification.isValid()) {
+            return chain.filter(exchange);
+        }
+
+        return loadUserDetails(verification)
+                .filter(userDetails -> {
+                    if (!userDetails.isEnabled()) {
+                        logger.debug("Ignoring token of disabled user {}", userDetails.getUsername());
+                    }
+                    return userDetails.isEnabled();
+                })
+                .map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()))
+                .onErrorResume(e -> {
+                    logger.error("Cannot set user authentication: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .flatMap(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+                        .thenReturn(Boolean.TRUE))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.TRUE)))
+                .then();
+    }
+
+    /**
+     * In stateless mode the principal is built from the token claims; tokens issued without
+     * those claims fall back to a database lookup.
+     */
+    private Mono<UserDetailsImpl> loadUserDetails(JwtVerification verification) {
+        if (jwtConfig.isStatelessAuth()) {
+            UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(verification.getClaims());
+            if (userDetails != null) {
+                return Mono.just(userDetails);
+            }
+        }
+
+        return userRepository.findByUsername(verification.getSubject());
+    }
+
+    private static String parseJwt(ServerWebExchange exchange) {
+        String headerAuth = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,262 @@
+package com.microservices.authservice.reactive.service;
+
+import com.microservices.authservice.dto.request.LoginRequest;
+import com.microservices.authservice.dto.request.SignupRequest;
+import com.microservices.authservice.dto.response.AvailabilityResponse;
+import com.microservices.authservice.dto.response.JwtResponse;
+import com.microservices.authservice.dto.response.MessageResponse;
+import com.microservices.authservice.exception.TokenRefreshException;
+import com.microservices.authservice.exception.UserOperationException;
+import com.microservices.authservice.limit.LoginThrottle;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.reactive.repository.ReactiveRefreshTokenRepository;
+import com.microservices.authservice.reactive.repository.ReactiveUserRepository;
+import com.microservices.authservice.security.crypto.BoundedPasswordEncoder;
+import com.microservices.authservice.security.crypto.TokenHasher;
+import com.microservices.authservice.security.jwt.JwtUtils;
+import com.microservices.authservice.security.services.UserDetailsImpl;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.authservice.service.PasswordUpgradeService;
+import com.microservices.authservice.service.RefreshSession;
+import com.microservices.authservice.service.RoleRegistry;
+import com.microservices.authservice.service.SecondLevelCacheEvictor;
+import com.microservices.authservice.service.identity.UserIdentityFilter;
+import com.microservices.authservice.service.search.UserSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@link com.microservices.authservice.service.AuthService}.
+ * Database access goes through R2DBC and password hashing through the bounded hashing pool, so no
+ * event loop thread ever waits on MySQL or BCrypt.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveRefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Autowired
+    private UserIdentityFilter identityFilter;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Value("${app.jwt.refresh-expiration-ms}")
+    private long refreshTokenDurationMs;
+
+    /**
+     * Hash compared against when the user does not exist, so unknown usernames take as long as wrong passwords.
+     */
+    private final Mono<String> userNotFoundHash = Mono.defer(() -> Mono.fromFuture(
+            passwordEncoder.encodeAsync("userNotFoundPassword"))).cache();
+
+    /**
+     * Authenticate a user and generate tokens.
+     *
+     * @param loginRequest login credentials
+     * @param clientIp address of the client, used for throttling
+     * @return JWT response with tokens and user information
+     */
+    public Mono<JwtResponse> authenticateUser(LoginRequest loginRequest, String clientIp) {
+        return Mono.fromRunnable(() -> loginThrottle.checkAttempt(loginRequest.getUsername(), clientIp))
+                .then(userRepository.findByUsername(loginRequest.getUsername()))
+                .switchIfEmpty(Mono.defer(() -> userNotFoundHash
+                        .flatMap(hash -> matches(loginRequest.getPassword(), hash))
+                        .then(Mono.<UserDetailsImpl>error(new BadCredentialsException("Bad credentials")))))
+                .flatMap(user -> {
+                    if (!user.isEnabled()) {
+                        return Mono.<UserDetailsImpl>error(new DisabledException("User is disabled"));
+                    }
+                    return matches(loginRequest.getPassword(), user.getPassword())
+                            .flatMap(matched -> matched
+                                    ? Mono.just(user)
+                                    : Mono.<UserDetailsImpl>error(new BadCredentialsException("Bad credentials")));
+                })
+                .doOnError(BadCredentialsException.class, e -> loginThrottle.recordFailure(loginRequest.getUsername()))
+                .doOnNext(user -> loginThrottle.recordSuccess(loginRequest.getUsername()))
+                .flatMap(user -> {
+                    String token = TokenHasher.newToken();
+                    Instant expiryDate = Instant.now().plusMillis(refreshTokenDurationMs);
+                    return refreshTokenRepository.upsert(user.getId(), TokenHasher.hash(token), expiryDate)
+                            .then(Mono.fromSupplier(() -> {
+                                // Runs on its own background thread and never delays the response
+                                passwordUpgradeService.upgradeIfNeeded(user, loginRequest.getPassword());
+                                return response(user, jwtUtils.generateTokenFromUserDetails(user), token);
+                            }));
+                });
+    }
+
+    /**
+     * Register a new user.
+     *
+     * @param signupRequest signup information
+     * @return response message
+     */
+    public Mono<MessageResponse> registerUser(SignupRequest signupRequest) {
+        return isUsernameTaken(signupRequest.getUsername()).flatMap(usernameTaken -> {
+            if (usernameTaken) {
+                return Mono.just(new MessageResponse("Error: Username is already taken!"));
+            }
+            return isEmailTaken(signupRequest.getEmail()).flatMap(emailTaken -> {
+                if (emailTaken) {
+                    return Mono.just(new MessageResponse("Error: Email is already in use!"));
+                }
+                return createUser(signupRequest);
+            });
+        });
+    }
+
+    private Mono<MessageResponse> createUser(SignupRequest signupRequest) {
+        List<Long> roleIds = roleRegistry.resolveSignupRoles(signupRequest.getRoles()).stream()
+                .map(Role::getId)
+                .collect(Collectors.toList());
+
+        return Mono.fromFuture(() -> passwordEncoder.encodeAsync(signupRequest.getPassword()))
+                .flatMap(hash -> userRepository.insert(signupRequest.getUsername(), signupRequest.getEmail(), hash, roleIds))
+                .map(id -> {
+                    identityFilter.add(signupRequest.getUsername(), signupRequest.getEmail());
+                    searchIndex.index(id, signupRequest.getUsername(), signupRequest.getEmail());
+                    // The insert bypassed Hibernate, which may have cached the name as not found
+                    secondLevelCacheEvictor.evictUsernameLookups();
+                    return new MessageResponse("User registered successfully!");
+                });
+    }
+
+    /**
+     * Check whether a username and/or email can still be registered.
+     *
+     * @param username the username to check, or null
+     * @param email the email to check, or null
+     * @return availability of each value that was given
+     */
+    public Mono<AvailabilityResponse> checkAvailability(String username, String email) {
+        if (!StringUtils.hasText(username) && !StringUtils.hasText(email)) {
+            return Mono.error(new UserOperationException("A username or email is required"));
+        }
+
+        Mono<Boolean> usernameTaken = StringUtils.hasText(username) ? isUsernameTaken(username) : Mono.just(false);
+        Mono<Boolean> emailTaken = StringUtils.hasText(email) ? isEmailTaken(email) : Mono.just(false);
+
+        return Mono.zip(usernameTaken, emailTaken)
+                .map(taken -> new AvailabilityResponse(
+                        username, StringUtils.hasText(username) ? !taken.getT1() : null,
+                        email, StringUtils.hasText(email) ? !taken.getT2() : null));
+    }
+
+    /**
+     * Refresh an access token using a refresh token.
+     *
+     * @param requestRefreshToken the refresh token
+     * @return JWT response with new access token
+     */
+    public Mono<JwtResponse> refreshToken(String requestRefreshToken) {
+        return refreshTokenRepository.findSession(TokenHasher.hash(requestRefreshToken))
+                .switchIfEmpty(Mono.error(() -> new TokenRefreshException(requestRefreshToken,
+                        "Refresh token is not in database!")))
+                .flatMap(session -> verifyExpiration(session, requestRefreshToken))
+                .map(session -> {
+                    UserDetailsImpl userDetails = session.getUserDetails();
+                    return response(userDetails, jwtUtils.generateTokenFromUserDetails(userDetails), requestRefreshToken);
+                });
+    }
+
+    /**
+     * Log out a user by deleting their refresh tokens and dropping their cached details.
+     *
+     * @param userId the ID of the user to log out
+     * @param username the username of the user to log out
+     * @return response message
+     */
+    public Mono<MessageResponse> logoutUser(Long userId, String username) {
+        return refreshTokenRepository.deleteByUserId(userId)
+                .then(Mono.fromSupplier(() -> {
+                    userDetailsService.evictUser(username);
+                    return new MessageResponse("Log out successful!");
+                }));
+    }
+
+    /**
+     * Validate a JWT token. Verification is CPU-only, so it runs inline.
+     *
+     * @param token the token to validate
+     * @return true if valid, false otherwise
+     */
+    public boolean validateToken(String token) {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    private Mono<RefreshSession> verifyExpiration(RefreshSession session, String token) {
+        if (!session.isExpired()) {
+            return Mono.just(session);
+        }
+        return refreshTokenRepository.deleteByTokenHash(session.getTokenHash())
+                .then(Mono.<RefreshSession>error(new TokenRefreshException(token,
+                        "Refresh token was expired. Please make a new signin request")));
+    }
+
+    /**
+     * Only names the filter cannot rule out are checked against the database.
+     */
+    private Mono<Boolean> isUsernameTaken(String username) {
+        return identityFilter.mightHaveUsername(username) ? userRepository.existsByUsername(username) : Mono.just(false);
+    }
+
+    private Mono<Boolean> isEmailTaken(String email) {
+        return identityFilter.mightHaveEmail(email) ? userRepository.existsByEmail(email) : Mono.just(false);
+    }
+
+    private Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return Mono.fromFuture(() -> passwordEncoder.matchesAsync(rawPassword, encodedPassword));
+    }
+
+    private static JwtResponse response(UserDetailsImpl userDetails, String accessToken, String refreshToken) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
+        return new JwtResponse(
+                accessToken,
+                refreshToken,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail(),
+                roles);
+    }
+}
@@ -0,0 +1,152 @@
+package com.microservices.authservice.controller;
+
+import com.microservices.authservice.config.JwtConfig;
+import com.microservices.authservice.config.PasswordEncoderConfig;
+import com.microservices.authservice.config.SecurityConfig;
+import com.microservices.authservice.security.crypto.PasswordHashingExecutor;
+import com.microservices.authservice.security.jwt.JwtAuthEntryPoint;
+import com.microservices.authservice.security.jwt.JwtUtils;
+import com.microservices.authservice.security.services.UserDetailsServiceImpl;
+import com.microservices.authservice.service.UserBatchService;
+import com.microservices.authservice.service.UserExportService;
+import com.microservices.authservice.service.UserImportService;
+import com.microservices.authservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * URL authorization rules for the admin-only endpoints. Method security is not enabled,
+ * so these rules are what keeps plain users out.
+ */
+@WebMvcTest(controllers = UserController.class, properties = "app.concurrency-limit.enabled=false")
+@Import({SecurityConfig.class, PasswordEncoderConfig.class, JwtAuthEntryPoint.class})
+class UserControllerSecurityTest {
+
+    private static final String IDS = "{\"ids\":[1]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private UserExportService userExportService;
+
+    @MockitoBean
+    private UserImportService userImportService;
+
+    @MockitoBean
+    private UserBatchService userBatchService;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockitoBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private JwtConfig jwtConfig;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotAssignRoles() throws Exception {
+        mockMvc.perform(put("/api/users/batch/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1],\"roles\":[\"admin\"]}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotDeactivateActivateOrDeleteUsers() throws Exception {
+        for (String path : new String[]{"/batch/deactivate", "/batch/activate", "/batch/delete"}) {
+            mockMvc.perform(post("/api/users" + path).contentType(MediaType.APPLICATION_JSON).content(IDS))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminCanRunBatchOperations() throws Exception {
+        mockMvc.perform(post("/api/users/batch/deactivate").contentType(MediaType.APPLICATION_JSON).content(IDS))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotListUsers() throws Exception {
+        mockMvc.perform(get("/api/users").param("role", "admin"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotDeleteUsers() throws Exception {
+        mockMvc.perform(delete("/api/users/1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotSearchUsers() throws Exception {
+        mockMvc.perform(get("/api/users/search").param("q", "a"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotExportUsers() throws Exception {
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotImportUsers() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"mallory\",\"email\":\"m@example.com\","
+                                + "\"password\":\"secret123\",\"roles\":[\"admin\"]}]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotReloadRolesOrClearCaches() throws Exception {
+        mockMvc.perform(post("/actuator/roles"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/caches"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotReadCacheStatistics() throws Exception {
+        mockMvc.perform(get("/actuator/l2cache"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/l2cache/com.microservices.authservice.model.User"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousRequestsAreUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/users/batch/delete").contentType(MediaType.APPLICATION_JSON).content(IDS))
+                .andExpect(status().isUnauthorized());
+    }
+}
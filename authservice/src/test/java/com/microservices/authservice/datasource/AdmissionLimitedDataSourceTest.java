@@ -0,0 +1,107 @@
+package com.microservices.authservice.datasource;
+
+import com.microservices.authservice.config.DataSourceAdmissionConfig;
+import com.microservices.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionLimitedDataSourceTest {
+
+    private DataSourceAdmissionConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new DataSourceAdmissionConfig();
+        config.setMaxConcurrent(2);
+        config.setAcquireTimeoutMs(50);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void rejectsWhenAllPermitsAreHeld() throws Exception {
+        AdmissionLimitedDataSource dataSource = dataSource();
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceOverloadedException.class);
+        }
+        assertThat(meterRegistry.counter("auth.db.admission.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void closingReleasesThePermitOnce() throws Exception {
+        AdmissionLimitedDataSource dataSource = dataSource();
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThat(meterRegistry.get("auth.db.admission.active").gauge().value()).isEqualTo(2.0);
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceOverloadedException.class);
+        }
+        assertThat(meterRegistry.get("auth.db.admission.active").gauge().value()).isEqualTo(0.0);
+    }
+
+    @Test
+    void waiterGetsPermitWhenConnectionIsClosed() throws Exception {
+        config.setAcquireTimeoutMs(5000);
+        AdmissionLimitedDataSource dataSource = dataSource();
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.isValid(1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        first.close();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        second.close();
+    }
+
+    @Test
+    void rejectsAtOnceWhenTooManyAreWaiting() throws Exception {
+        config.setAcquireTimeoutMs(5000);
+        config.setMaxConcurrent(1);
+        config.setMaxWaiting(1);
+        AdmissionLimitedDataSource dataSource = dataSource();
+
+        try (Connection held = dataSource.getConnection()) {
+            CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.isValid(1);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (meterRegistry.get("auth.db.admission.waiting").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            long startedAt = System.nanoTime();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceOverloadedException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(1000);
+
+            held.close();
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private AdmissionLimitedDataSource dataSource() {
+        return new AdmissionLimitedDataSource(new DriverManagerDataSource("jdbc:h2:mem:admission", "sa", ""),
+                config, meterRegistry);
+    }
+}
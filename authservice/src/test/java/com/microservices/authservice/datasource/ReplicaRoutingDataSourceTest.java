@@ -0,0 +1,96 @@
+package com.microservices.authservice.datasource;
+
+import com.microservices.authservice.config.ReplicaDataSourceConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0 AS lag_seconds");
+        monitor.check();
+        DataSource dataSource = routing(monitor);
+
+        assertThat(nodeName(dataSource, true)).isEqualTo("replica");
+        assertThat(nodeName(dataSource, false)).isEqualTo("primary");
+        assertThat(meterRegistry.counter("auth.datasource.reads", "target", "replica").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        ReplicaLagMonitor monitor = monitor("SELECT 10 AS lag_seconds");
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(nodeName(routing(monitor), true)).isEqualTo("primary");
+    }
+
+    @Test
+    void unknownLagFallsBackToPrimary() {
+        ReplicaLagMonitor monitor = monitor("SELECT CAST(NULL AS INT) AS lag_seconds");
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(nodeName(routing(monitor), true)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaIsUnusableBeforeFirstCheck() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0 AS lag_seconds");
+
+        assertThat(nodeName(routing(monitor), true)).isEqualTo("primary");
+    }
+
+    private ReplicaLagMonitor monitor(String lagQuery) {
+        ReplicaDataSourceConfig config = new ReplicaDataSourceConfig();
+        config.setMaxLagSeconds(2);
+        config.setLagQuery(lagQuery);
+        config.setLagColumn("lag_seconds");
+        return new ReplicaLagMonitor(replica, config, meterRegistry);
+    }
+
+    private DataSource routing(ReplicaLagMonitor monitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(replica, primary, monitor::isReplicaUsable, meterRegistry));
+        return dataSource;
+    }
+
+    private static String nodeName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,46 @@
+package com.microservices.authservice.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueKeyViolationsTest {
+
+    @Test
+    void duplicateKeyIsUnique() {
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(new DuplicateKeyException("dup"))).isTrue();
+    }
+
+    @Test
+    void mysqlDuplicateEntryIsUnique() {
+        DataIntegrityViolationException ex = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException(new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'alice' for key 'users.username'", "23000", 1062)));
+
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(ex)).isTrue();
+    }
+
+    @Test
+    void standardUniqueSqlStateIsUnique() {
+        DataIntegrityViolationException ex = new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Unique index or primary key violation", "23505", 23505));
+
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(ex)).isTrue();
+    }
+
+    @Test
+    void otherIntegrityErrorsAreNotUnique() {
+        DataIntegrityViolationException foreignKey = new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Cannot add or update a child row", "23000", 1452));
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Column 'email' cannot be null", "23000", 1048));
+
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(foreignKey)).isFalse();
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(notNull)).isFalse();
+        assertThat(UniqueKeyViolations.isUniqueKeyViolation(new DataIntegrityViolationException("no cause"))).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package com.microservices.authservice.limit;
+
+import com.microservices.authservice.config.ConcurrencyLimitConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Fake nanoTime; each finished request advances it, so the next one starts after it.
+     */
+    private long now;
+
+    @Test
+    void rejectsOnceLimitIsReached() {
+        AimdLimiter limiter = limiter(2);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        finish(limiter, FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileFastAndBusy() {
+        AimdLimiter limiter = limiter(4);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        finish(limiter, FAST, false);
+        finish(limiter, FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    void doesNotGrowWhileIdle() {
+        AimdLimiter limiter = limiter(10);
+
+        limiter.tryAcquire();
+        finish(limiter, FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shrinksOnSlowOrFailedRequestsDownToMinimum() {
+        AimdLimiter limiter = limiter(10);
+
+        limiter.tryAcquire();
+        finish(limiter, SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            finish(limiter, FAST, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void burstOfSlowRequestsShrinksLimitOnce() {
+        AimdLimiter limiter = new AimdLimiter(new ConcurrencyLimitConfig.Limit(200, 2, 200, 100), 0.9);
+
+        long burstStart = now;
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.release(burstStart, burstStart + SLOW + i, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(180);
+
+        // A request admitted after that decrease still counts
+        now = burstStart + SLOW + 100;
+        limiter.tryAcquire();
+        finish(limiter, SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(162);
+    }
+
+    private void finish(AimdLimiter limiter, long latencyNanos, boolean failed) {
+        long startedAt = now;
+        now += latencyNanos;
+        limiter.release(startedAt, now, failed);
+    }
+
+    private static AimdLimiter limiter(int initialLimit) {
+        return new AimdLimiter(new ConcurrencyLimitConfig.Limit(initialLimit, 2, 100, 100), 0.5);
+    }
+}
@@ -0,0 +1,85 @@
+package com.microservices.authservice.limit;
+
+import com.microservices.authservice.config.LoginThrottleConfig;
+import com.microservices.authservice.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private LoginThrottleConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new LoginThrottleConfig();
+        config.setWindowSeconds(3600);
+        config.setMaxAttemptsPerUsername(3);
+        config.setMaxAttemptsPerIp(5);
+        config.setFailuresBeforeBackoff(2);
+        config.setInitialBackoffMs(60000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void limitsAttemptsPerUsernameIgnoringCase() {
+        LoginThrottle throttle = new LoginThrottle(config, meterRegistry);
+
+        throttle.checkAttempt("alice", "10.0.0.1");
+        throttle.checkAttempt("Alice", "10.0.0.2");
+        throttle.checkAttempt("ALICE ", "10.0.0.3");
+
+        assertThatThrownBy(() -> throttle.checkAttempt("alice", "10.0.0.4"))
+                .isInstanceOf(LoginThrottledException.class);
+        assertThat(meterRegistry.counter("auth.login.throttle.rejected", "reason", "username").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void limitsAttemptsPerIpAcrossUsernames() {
+        LoginThrottle throttle = new LoginThrottle(config, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAttempt("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttle.checkAttempt("user5", "10.0.0.1"))
+                .isInstanceOf(LoginThrottledException.class);
+        throttle.checkAttempt("user5", "10.0.0.2");
+        assertThat(meterRegistry.counter("auth.login.throttle.rejected", "reason", "ip").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void backsOffAfterRepeatedFailuresUntilSuccess() {
+        config.setMaxAttemptsPerUsername(100);
+        LoginThrottle throttle = new LoginThrottle(config, meterRegistry);
+
+        throttle.checkAttempt("bob", null);
+        throttle.recordFailure("bob");
+        throttle.checkAttempt("bob", null);
+        throttle.recordFailure("bob");
+        throttle.checkAttempt("bob", null);
+        throttle.recordFailure("bob");
+
+        assertThatThrownBy(() -> throttle.checkAttempt("bob", null))
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(59L, 60L));
+
+        throttle.recordSuccess("bob");
+        throttle.checkAttempt("bob", null);
+    }
+
+    @Test
+    void disabledThrottleAdmitsEverything() {
+        config.setEnabled(false);
+        LoginThrottle throttle = new LoginThrottle(config, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            throttle.checkAttempt("alice", "10.0.0.1");
+            throttle.recordFailure("alice");
+        }
+    }
+}
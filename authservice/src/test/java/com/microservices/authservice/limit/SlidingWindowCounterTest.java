@@ -0,0 +1,37 @@
+package com.microservices.authservice.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    private static final long WINDOW = 1000;
+
+    @Test
+    void refusesOverLimitWithinWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW, 0);
+
+        assertThat(counter.tryIncrement(100, 2)).isTrue();
+        assertThat(counter.tryIncrement(200, 2)).isTrue();
+        assertThat(counter.tryIncrement(300, 2)).isFalse();
+        assertThat(counter.millisUntilNextWindow(300)).isEqualTo(700);
+    }
+
+    @Test
+    void previousWindowFadesOut() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW, 0);
+        for (int i = 0; i < 4; i++) {
+            assertThat(counter.tryIncrement(900, 4)).isTrue();
+        }
+
+        // A quarter into the next window three quarters of the previous count still apply
+        assertThat(counter.tryIncrement(1250, 4)).isTrue();
+        assertThat(counter.tryIncrement(1250, 4)).isFalse();
+
+        // Two windows later nothing of it is left
+        for (int i = 0; i < 4; i++) {
+            assertThat(counter.tryIncrement(3000, 4)).isTrue();
+        }
+    }
+}
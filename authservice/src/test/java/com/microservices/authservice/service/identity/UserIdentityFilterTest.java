@@ -0,0 +1,87 @@
+package com.microservices.authservice.service.identity;
+
+import com.microservices.authservice.config.IdentityFilterConfig;
+import com.microservices.authservice.config.ShardingConfig;
+import com.microservices.authservice.datasource.StreamingQueryExecutor;
+import com.microservices.authservice.sharding.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdentityFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserIdentityFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:identity;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(20), email VARCHAR(50))");
+
+        IdentityFilterConfig config = new IdentityFilterConfig();
+        config.setExpectedInsertions(1000);
+        // Low enough that no unknown name in these tests is a false positive
+        config.setFalsePositiveRate(1e-9);
+
+        filter = new UserIdentityFilter(config, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(filter, "streamingQueries", new StreamingQueryExecutor(dataSource));
+        ReflectionTestUtils.setField(filter, "shards", new Shards(new ShardingConfig()));
+    }
+
+    @Test
+    void everyNameIsMaybeTakenBeforeTheFirstBuild() {
+        assertThat(filter.mightHaveUsername("anyone")).isTrue();
+        assertThat(filter.mightHaveEmail("anyone@example.com")).isTrue();
+    }
+
+    @Test
+    void buildFindsEveryStoredName() {
+        for (int i = 0; i < 500; i++) {
+            jdbcTemplate.update("INSERT INTO users (id, username, email) VALUES (?, ?, ?)",
+                    i, "user" + i, "user" + i + "@example.com");
+        }
+
+        filter.rebuild();
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(filter.mightHaveUsername("user" + i)).isTrue();
+            assertThat(filter.mightHaveEmail("user" + i + "@example.com")).isTrue();
+        }
+        assertThat(filter.mightHaveUsername("nobody")).isFalse();
+        assertThat(filter.mightHaveEmail("nobody@example.com")).isFalse();
+    }
+
+    @Test
+    void namesAreFoldedForCaseAndAccents() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email) VALUES (1, 'José', 'Jose@Example.com')");
+        filter.rebuild();
+        filter.add("zoe", "zoe@example.com");
+
+        assertThat(filter.mightHaveUsername("jose")).isTrue();
+        assertThat(filter.mightHaveUsername(" JOSÉ ")).isTrue();
+        assertThat(filter.mightHaveEmail("jose@example.com")).isTrue();
+        assertThat(filter.mightHaveUsername("Zoë")).isTrue();
+        assertThat(filter.mightHaveEmail("ZOË@EXAMPLE.COM")).isTrue();
+    }
+
+    @Test
+    void namesAddedAfterTheBuildAreFound() {
+        filter.rebuild();
+        assertThat(filter.mightHaveUsername("alice")).isFalse();
+
+        filter.add("alice", "alice@example.com");
+
+        assertThat(filter.mightHaveUsername("Alice")).isTrue();
+        assertThat(filter.mightHaveEmail("alice@example.com")).isTrue();
+    }
+}
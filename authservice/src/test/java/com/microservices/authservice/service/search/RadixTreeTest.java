@@ -0,0 +1,68 @@
+package com.microservices.authservice.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTreeTest {
+
+    private RadixTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RadixTree();
+        tree.put("alice", 1);
+        tree.put("alicia", 2);
+        tree.put("alfred", 3);
+        tree.put("al", 4);
+        tree.put("bob", 5);
+    }
+
+    @Test
+    void collectsKeysUnderPrefixInOrder() {
+        assertThat(keys(tree.collect("al", null, 10))).containsExactly("al", "alfred", "alice", "alicia");
+        assertThat(keys(tree.collect("ali", null, 10))).containsExactly("alice", "alicia");
+        assertThat(keys(tree.collect("alic", null, 10))).containsExactly("alice", "alicia");
+        assertThat(keys(tree.collect("alx", null, 10))).isEmpty();
+        assertThat(keys(tree.collect("alicex", null, 10))).isEmpty();
+    }
+
+    @Test
+    void resumesAfterCursor() {
+        List<RadixTree.Match> first = tree.collect("al", null, 2);
+        assertThat(keys(first)).containsExactly("al", "alfred");
+
+        List<RadixTree.Match> second = tree.collect("al", first.get(first.size() - 1).key, 2);
+        assertThat(keys(second)).containsExactly("alice", "alicia");
+
+        assertThat(tree.collect("al", "alicia", 2)).isEmpty();
+    }
+
+    @Test
+    void removeUnlinksKeyAndKeepsSiblings() {
+        tree.remove("alice", 1);
+        tree.remove("al", 4);
+        tree.remove("bob", 99);
+
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(keys(tree.collect("al", null, 10))).containsExactly("alfred", "alicia");
+        assertThat(keys(tree.collect("b", null, 10))).containsExactly("bob");
+    }
+
+    @Test
+    void keepsSeveralIdsPerKey() {
+        tree.put("bob", 6);
+        tree.put("bob", 6);
+
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.collect("bob", null, 10).get(0).ids).containsExactly(5L, 6L);
+    }
+
+    private static List<String> keys(List<RadixTree.Match> matches) {
+        return matches.stream().map(match -> match.key).collect(Collectors.toList());
+    }
+}
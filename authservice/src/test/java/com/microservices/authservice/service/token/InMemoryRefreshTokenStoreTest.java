@@ -0,0 +1,162 @@
+package com.microservices.authservice.service.token;
+
+import com.microservices.authservice.config.RefreshTokenStoreConfig;
+import com.microservices.authservice.service.RefreshSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryRefreshTokenStoreTest {
+
+    private RefreshTokenDao dao;
+    private InMemoryRefreshTokenStore store;
+    private AutoCloseable mocks;
+
+    @Captor
+    private ArgumentCaptor<List<RefreshSession>> written;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        dao = mock(RefreshTokenDao.class);
+        when(dao.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        RefreshTokenStoreConfig config = new RefreshTokenStoreConfig();
+        config.setStripes(4);
+        config.setFlushBatchSize(100);
+
+        store = new InMemoryRefreshTokenStore(dao, config, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void savedTokenIsServedFromMemoryAndWrittenOnFlush() {
+        RefreshSession session = session("hash-1", 1L, 60);
+
+        store.save(session);
+
+        assertThat(store.findByTokenHash("hash-1")).contains(session);
+        verify(dao, never()).findByTokenHash(anyString());
+        verify(dao, never()).upsertAll(anyList(), anyInt());
+
+        store.flush();
+
+        verify(dao).upsertAll(List.of(session), 100);
+        assertThat(store.pendingSize()).isZero();
+    }
+
+    @Test
+    void repeatedLoginsCoalesceIntoOneWrite() {
+        store.save(session("hash-1", 1L, 60));
+        RefreshSession latest = session("hash-2", 1L, 60);
+        store.save(latest);
+
+        assertThat(store.findByTokenHash("hash-1")).isEmpty();
+        assertThat(store.findByTokenHash("hash-2")).contains(latest);
+
+        store.flush();
+
+        verify(dao).upsertAll(List.of(latest), 100);
+    }
+
+    @Test
+    void deleteIsWrittenThroughAndNotResurrectedFromDatabase() {
+        RefreshSession session = session("hash-1", 1L, 60);
+        store.save(session);
+
+        store.deleteByUserId(1L);
+
+        verify(dao).deleteByUserIds(List.of(1L));
+        assertThat(store.pendingSize()).isZero();
+        assertThat(store.findByTokenHash("hash-1")).isEmpty();
+
+        store.flush();
+        verify(dao, never()).upsertAll(anyList(), anyInt());
+    }
+
+    @Test
+    void unknownTokenIsReadThroughAndKeptInMemory() {
+        RefreshSession persisted = session("hash-9", 9L, 60);
+        when(dao.findByTokenHash("hash-9")).thenReturn(Optional.of(persisted));
+
+        assertThat(store.findByTokenHash("hash-9")).contains(persisted);
+        assertThat(store.findByTokenHash("hash-9")).contains(persisted);
+
+        verify(dao, times(1)).findByTokenHash("hash-9");
+    }
+
+    @Test
+    void staleDatabaseRowDoesNotReplaceQueuedToken() {
+        store.save(session("hash-new", 1L, 60));
+        when(dao.findByTokenHash("hash-old")).thenReturn(Optional.of(session("hash-old", 1L, 60)));
+
+        assertThat(store.findByTokenHash("hash-old")).isEmpty();
+        assertThat(store.findByTokenHash("hash-new")).isPresent();
+    }
+
+    @Test
+    void recoverLoadsPersistedTokens() {
+        when(dao.loadActive(any(Instant.class))).thenReturn(List.of(
+                session("hash-1", 1L, 60),
+                session("hash-2", 2L, 60)));
+
+        assertThat(store.recover()).isEqualTo(2);
+        assertThat(store.findByTokenHash("hash-2")).isPresent();
+        verify(dao, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        RefreshSession session = session("hash-1", 1L, 60);
+        store.save(session);
+        doThrow(new IllegalStateException("database down")).when(dao).upsertAll(anyList(), anyInt());
+
+        store.flush();
+
+        assertThat(store.pendingSize()).isEqualTo(1);
+
+        store.flush();
+        verify(dao, times(2)).upsertAll(written.capture(), anyInt());
+        assertThat(written.getValue()).containsExactly(session);
+    }
+
+    @Test
+    void expiredTokensAreEvictedFromMemory() {
+        store.save(session("hash-1", 1L, -1));
+        store.save(session("hash-2", 2L, 60));
+
+        store.evictExpired();
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private static RefreshSession session(String tokenHash, Long userId, long minutesToExpiry) {
+        return RefreshSession.of(tokenHash, userId, "user" + userId, "user" + userId + "@example.com",
+                List.of("ROLE_USER"), Instant.now().plus(minutesToExpiry, ChronoUnit.MINUTES));
+    }
+}
@@ -0,0 +1,335 @@
+package com.microservices.authservice.sharding;
+
+import com.microservices.authservice.config.ShardingConfig;
+import com.microservices.authservice.model.ERole;
+import com.microservices.authservice.model.Role;
+import com.microservices.authservice.model.User;
+import com.microservices.authservice.repository.RefreshTokenRepository;
+import com.microservices.authservice.repository.UserRepository;
+import com.microservices.authservice.repository.projection.RefreshTokenRow;
+import com.microservices.authservice.repository.projection.UserRoleRow;
+import com.microservices.authservice.service.SecondLevelCacheEvictor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs repository calls through the aspect against two H2 shards. The repositories are plain JDBC
+ * stand-ins that query whichever shard the aspect selected.
+ */
+class ShardRoutingAspectTest {
+
+    private Shards shards;
+    private List<DataSource> databases;
+    private UserDirectory userDirectory;
+    private UserRepository users;
+    private RefreshTokenRepository refreshTokens;
+
+    @BeforeEach
+    void setUp() {
+        ShardingConfig config = new ShardingConfig();
+        config.setEnabled(true);
+        databases = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ShardingConfig.Shard shard = new ShardingConfig.Shard();
+            shard.setUrl("jdbc:h2:mem:routing-shard-" + i);
+            config.getShards().add(shard);
+            databases.add(database("routing-shard-" + i));
+        }
+        shards = new Shards(config);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(databases));
+
+        new JdbcTemplate(databases.get(0)).execute("DROP TABLE IF EXISTS user_directory");
+        userDirectory = new UserDirectory(databases.get(0));
+        userDirectory.createTable();
+
+        ShardRoutingAspect aspect = new ShardRoutingAspect(dataSource);
+        ReflectionTestUtils.setField(aspect, "shards", shards);
+        ReflectionTestUtils.setField(aspect, "userDirectory", userDirectory);
+        ReflectionTestUtils.setField(aspect, "secondLevelCacheEvictor", mock(SecondLevelCacheEvictor.class));
+
+        JdbcTemplate routed = new JdbcTemplate(dataSource);
+        users = proxy(new JdbcUserRepository(routed), aspect);
+        refreshTokens = proxy(new JdbcRefreshTokenRepository(routed), aspect);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.destroy();
+    }
+
+    @Test
+    void saveWritesNewUserToItsShard() {
+        User alice = users.save(user("alice", ERole.ROLE_USER));
+
+        assertThat(alice.getId()).isNotNull();
+        assertThat(userDirectory.findIdByUsername("alice")).isEqualTo(alice.getId());
+        assertThat(countUsers(shards.shardOf(alice.getId()), "alice")).isEqualTo(1);
+        assertThat(countUsers(1 - shards.shardOf(alice.getId()), "alice")).isZero();
+    }
+
+    @Test
+    void findByUsernameReadsFromTheUsersShard() {
+        List<User> created = createUsers(6);
+
+        for (User user : created) {
+            assertThat(users.findByUsername(user.getUsername())).map(User::getId).contains(user.getId());
+            assertThat(users.existsByEmail(user.getEmail())).isTrue();
+        }
+        assertThat(users.findByUsername("nobody")).isEmpty();
+        assertThat(users.existsByUsername("nobody")).isFalse();
+    }
+
+    @Test
+    void findPageMergesShardsInIdOrder() {
+        List<User> created = createUsers(6);
+        assertThat(created).extracting(user -> shards.shardOf(user.getId())).contains(0, 1);
+
+        List<UserRoleRow> page = users.findPage(0, null, null, 4);
+
+        // The first user holds two roles, so the page has five rows for four users
+        assertThat(page).extracting(UserRoleRow::getId).containsExactly(
+                created.get(0).getId(), created.get(0).getId(), created.get(1).getId(),
+                created.get(2).getId(), created.get(3).getId());
+
+        List<UserRoleRow> next = users.findPage(created.get(3).getId(), null, null, 4);
+        assertThat(next).extracting(UserRoleRow::getId).containsExactly(created.get(4).getId(), created.get(5).getId());
+    }
+
+    @Test
+    void deleteRemovesRowAndReleasesNames() {
+        User alice = users.save(user("alice", ERole.ROLE_USER));
+
+        users.delete(alice);
+
+        assertThat(countUsers(shards.shardOf(alice.getId()), "alice")).isZero();
+        assertThat(userDirectory.findIdByUsername("alice")).isNull();
+        assertThat(users.findById(alice.getId())).isEmpty();
+    }
+
+    @Test
+    void tokenLookupSearchesEveryShard() {
+        for (User user : createUsers(4)) {
+            new JdbcTemplate(databases.get(shards.shardOf(user.getId()))).update(
+                    "INSERT INTO refresh_tokens (user_id, token_hash, expiry_date) VALUES (?, ?, ?)",
+                    user.getId(), "hash-" + user.getUsername(), Timestamp.from(Instant.now().plusSeconds(60)));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(refreshTokens.findRowsByTokenHash("hash-user" + i))
+                    .extracting(RefreshTokenRow::getUsername).containsOnly("user" + i);
+        }
+        assertThat(refreshTokens.findRowsByTokenHash("unknown")).isEmpty();
+    }
+
+    @Test
+    void purgesMustNameTheirShard() {
+        assertThatThrownBy(() -> refreshTokens.findExpiredIds(Instant.now(), 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("must run inside Shards.forEach or Shards.callOn");
+        assertThat(shards.callOn(1, () -> refreshTokens.findExpiredIds(Instant.now(), 10))).isEmpty();
+    }
+
+    @Test
+    void unroutedRepositoryMethodsAreRefused() {
+        assertThatThrownBy(() -> ShardRoutingAspect.requireRouted(UnroutedRepository.class,
+                ShardRoutingAspect.USER_METHODS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("count");
+    }
+
+    private interface UnroutedRepository extends UserRepository {
+        long count();
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            created.add(i == 0
+                    ? users.save(user("user" + i, ERole.ROLE_USER, ERole.ROLE_ADMIN))
+                    : users.save(user("user" + i, ERole.ROLE_USER)));
+        }
+        return created;
+    }
+
+    private static User user(String username, ERole... roles) {
+        User user = new User(username, username + "@example.com", "hash");
+        for (ERole role : roles) {
+            user.getRoles().add(new Role((long) role.ordinal() + 1, role));
+        }
+        return user;
+    }
+
+    private int countUsers(int shard, String username) {
+        return new JdbcTemplate(databases.get(shard))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, username);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T repository, ShardRoutingAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(repository);
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS refresh_tokens");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_roles");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS roles");
+        jdbcTemplate.execute("CREATE TABLE roles (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(20), email VARCHAR(50), " +
+                "password VARCHAR(120), enabled BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE user_roles (user_id BIGINT, role_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE refresh_tokens (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, " +
+                "token_hash VARCHAR(64), expiry_date TIMESTAMP)");
+        for (ERole role : ERole.values()) {
+            jdbcTemplate.update("INSERT INTO roles (id, name) VALUES (?, ?)", role.ordinal() + 1, role.name());
+        }
+        return dataSource;
+    }
+
+    private record Row(Long getId, String getUsername, String getEmail, String getRoleName) implements UserRoleRow {
+    }
+
+    private record TokenRow(Long getUserId, String getUsername, String getEmail, ERole getRoleName,
+                            Instant getExpiryDate) implements RefreshTokenRow {
+    }
+
+    /**
+     * Runs each call on the DataSource the aspect routed it to.
+     */
+    private record JdbcUserRepository(JdbcTemplate jdbcTemplate) implements UserRepository {
+        private static final String ROWS = "SELECT u.id, u.username, u.email, r.name FROM %s " +
+                "LEFT JOIN user_roles ur ON ur.user_id = u.id LEFT JOIN roles r ON r.id = ur.role_id %s ORDER BY u.id";
+
+        @Override
+        public Optional<User> findById(Long id) {
+            return find("u.id = ?", id);
+        }
+
+        @Override
+        public Optional<User> findByUsername(String username) {
+            return find("u.username = ?", username);
+        }
+
+        @Override
+        public Optional<User> findByEmail(String email) {
+            return find("u.email = ?", email);
+        }
+
+        @Override
+        public Boolean existsByUsername(String username) {
+            return findByUsername(username).isPresent();
+        }
+
+        @Override
+        public Boolean existsByEmail(String email) {
+            return findByEmail(email).isPresent();
+        }
+
+        @Override
+        public User save(User user) {
+            jdbcTemplate.update("UPDATE users SET username = ?, email = ? WHERE id = ?",
+                    user.getUsername(), user.getEmail(), user.getId());
+            return user;
+        }
+
+        @Override
+        public void delete(User user) {
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+
+        @Override
+        public int updatePasswordIfUnchanged(Long id, String currentPassword, String newPassword) {
+            return jdbcTemplate.update("UPDATE users SET password = ? WHERE id = ? AND password = ?",
+                    newPassword, id, currentPassword);
+        }
+
+        @Override
+        public List<UserRoleRow> findPage(long afterId, String usernamePrefix, String roleName, int limit) {
+            return jdbcTemplate.query(String.format(ROWS,
+                            "(SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?) page JOIN users u ON u.id = page.id", ""),
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                    afterId, limit);
+        }
+
+        @Override
+        public List<UserRoleRow> findRowsByIdIn(Collection<Long> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        private Optional<User> find(String condition, Object value) {
+            List<User> found = jdbcTemplate.query(String.format(ROWS, "users u", "WHERE " + condition), (rs, rowNum) -> {
+                User user = new User(rs.getString(2), rs.getString(3), "hash");
+                user.setId(rs.getLong(1));
+                return user;
+            }, value);
+            return found.stream().findFirst();
+        }
+    }
+
+    private record JdbcRefreshTokenRepository(JdbcTemplate jdbcTemplate) implements RefreshTokenRepository {
+
+        @Override
+        public List<RefreshTokenRow> findRowsByTokenHash(String tokenHash) {
+            return jdbcTemplate.query("SELECT u.id, u.username, u.email, r.name, t.expiry_date FROM refresh_tokens t " +
+                            "JOIN users u ON u.id = t.user_id LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+                            "LEFT JOIN roles r ON r.id = ur.role_id WHERE t.token_hash = ?",
+                    (rs, rowNum) -> new TokenRow(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            ERole.valueOf(rs.getString(4)), rs.getTimestamp(5).toInstant()),
+                    tokenHash);
+        }
+
+        @Override
+        public List<Long> findExpiredIds(Instant cutoff, int limit) {
+            return jdbcTemplate.queryForList("SELECT id FROM refresh_tokens WHERE expiry_date < ? ORDER BY expiry_date LIMIT ?",
+                    Long.class, Timestamp.from(cutoff), limit);
+        }
+
+        @Override
+        public int upsert(Long userId, String tokenHash, Instant expiryDate) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int deleteByTokenHash(String tokenHash) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int deleteByIdIn(List<Long> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int deleteByUserId(Long userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int deleteByUserIdIn(Collection<Long> userIds) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
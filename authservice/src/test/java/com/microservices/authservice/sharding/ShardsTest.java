@@ -0,0 +1,123 @@
+package com.microservices.authservice.sharding;
+
+import com.microservices.authservice.config.ShardingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardsTest {
+
+    private Shards shards;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        ShardingConfig config = new ShardingConfig();
+        config.setEnabled(true);
+        List<DataSource> databases = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ShardingConfig.Shard shard = new ShardingConfig.Shard();
+            shard.setUrl("jdbc:h2:mem:shard-" + i);
+            config.getShards().add(shard);
+            databases.add(database("shard-" + i));
+        }
+        shards = new Shards(config);
+        dataSource = new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(databases));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.destroy();
+    }
+
+    @Test
+    void sequentialIdsSpreadEvenly() {
+        int[] counts = new int[3];
+        for (long id = 1; id <= 30_000; id++) {
+            counts[shards.shardOf(id)]++;
+        }
+
+        for (int count : counts) {
+            assertThat(count).isBetween(9_000, 11_000);
+        }
+        assertThat(shards.shardOf(42)).isEqualTo(shards.shardOf(42));
+    }
+
+    @Test
+    void groupsIdsByShard() {
+        Map<Integer, List<Long>> groups = shards.groupByShard(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+
+        groups.forEach((shard, ids) -> assertThat(ids).allSatisfy(id -> assertThat(shards.shardOf(id)).isEqualTo(shard)));
+        assertThat(groups.values().stream().mapToInt(List::size).sum()).isEqualTo(6);
+    }
+
+    @Test
+    void callOnRoutesConnectionsToTheShard() {
+        for (int shard = 0; shard < 3; shard++) {
+            int target = shard;
+            assertThat(shards.callOn(shard, () -> nodeName(dataSource))).isEqualTo("shard-" + target);
+        }
+        assertThat(nodeName(dataSource)).isEqualTo("shard-0");
+    }
+
+    @Test
+    void transactionIsPinnedToItsFirstShard() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        String name = transactionTemplate.execute(status -> {
+            String first = shards.callOn(2, () -> nodeName(dataSource));
+            assertThatThrownBy(() -> shards.callOn(1, () -> nodeName(dataSource)))
+                    .isInstanceOf(IllegalStateException.class);
+            return first + "," + shards.callOn(2, () -> nodeName(dataSource));
+        });
+
+        assertThat(name).isEqualTo("shard-2,shard-2");
+        // The pin ends with the transaction
+        assertThat(transactionTemplate.execute(status -> shards.callOn(1, () -> nodeName(dataSource))))
+                .isEqualTo("shard-1");
+    }
+
+    @Test
+    void fanOutQueriesEveryShard() {
+        assertThat(shards.fanOut(shard -> nodeName(dataSource)))
+                .containsExactly("shard-0", "shard-1", "shard-2");
+        assertThat(shards.fanOut(List.of(2, 0), shard -> ShardContext.current()))
+                .containsExactly(2, 0);
+    }
+
+    @Test
+    void disabledShardingRunsInline() {
+        Shards single = new Shards(new ShardingConfig());
+
+        assertThat(single.count()).isEqualTo(1);
+        assertThat(single.shardOf(12345)).isZero();
+        assertThat(single.callOn(0, ShardContext::current)).isNull();
+        assertThat(single.fanOut(shard -> shard)).containsExactly(0);
+    }
+
+    private static String nodeName(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,79 @@
+package com.microservices.authservice.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserDirectoryTest {
+
+    private UserDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = database("directory");
+        new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS user_directory");
+        directory = new UserDirectory(dataSource);
+        directory.createTable();
+    }
+
+    @Test
+    void allocatesUniqueIdsAndResolvesNames() {
+        long alice = directory.allocate("alice", "alice@example.com");
+        long bob = directory.allocate("bob", "bob@example.com");
+
+        assertThat(alice).isNotEqualTo(bob);
+        assertThat(directory.findIdByUsername("alice")).isEqualTo(alice);
+        assertThat(directory.findIdByEmail("bob@example.com")).isEqualTo(bob);
+        assertThat(directory.findIdByUsername("carol")).isNull();
+        assertThat(directory.findNames(bob)).containsExactly("bob", "bob@example.com");
+    }
+
+    @Test
+    void rejectsTakenUsernameOrEmail() {
+        directory.allocate("alice", "alice@example.com");
+
+        assertThatThrownBy(() -> directory.allocate("alice", "other@example.com"))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThatThrownBy(() -> directory.allocate("other", "alice@example.com"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void renamesAndReleasesNames() {
+        long alice = directory.allocate("alice", "alice@example.com");
+
+        directory.update(alice, "alicia", "alice@example.com");
+        assertThat(directory.findIdByUsername("alice")).isNull();
+        assertThat(directory.findIdByUsername("alicia")).isEqualTo(alice);
+
+        directory.deleteAll(List.of(alice));
+        assertThat(directory.findNames(alice)).isNull();
+        assertThat(directory.allocate("alicia", "alice@example.com")).isNotEqualTo(alice);
+    }
+
+    @Test
+    void backfillRegistersExistingUsersOnce() {
+        DataSource shard = database("backfill-shard");
+        JdbcTemplate shardTemplate = new JdbcTemplate(shard);
+        shardTemplate.execute("DROP TABLE IF EXISTS users");
+        shardTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(20), email VARCHAR(50))");
+        shardTemplate.update("INSERT INTO users (id, username, email) VALUES (7, 'dave', 'dave@example.com')");
+
+        directory.backfill(shard);
+        directory.backfill(shard);
+
+        assertThat(directory.findIdByUsername("dave")).isEqualTo(7L);
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
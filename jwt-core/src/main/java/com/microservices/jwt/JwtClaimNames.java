@@ -0,0 +1,29 @@
+package com.microservices.jwt;
+
+/**
+ * Names of the custom claims carried by access tokens, so the issuer and every verifier agree on them.
+ */
+public final class JwtClaimNames {
+    /**
+     * Database id of the user.
+     */
+    public static final String USER_ID = "id";
+
+    /**
+     * Email address of the user.
+     */
+    public static final String EMAIL = "email";
+
+    /**
+     * List of role names granted to the user.
+     */
+    public static final String ROLES = "roles";
+
+    /**
+     * Comma-separated role names, for consumers that forward a single header value.
+     */
+    public static final String ROLE = "role";
+
+    private JwtClaimNames() {
+    }
+}
@@ -0,0 +1,14 @@
+package com.microservices.jwt;
+
+/**
+ * Outcome of verifying a JWT.
+ */
+public enum JwtStatus {
+    VALID,
+    EXPIRED,
+    MALFORMED,
+    INVALID_SIGNATURE,
+    UNSUPPORTED,
+    EMPTY,
+    INVALID
+}
@@ -0,0 +1,65 @@
+package com.microservices.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of a single parse and verification of a JWT.
+ * Carries the claims when the token is valid and the failure reason otherwise.
+ */
+public final class JwtVerification {
+    private final JwtStatus status;
+    private final Claims claims;
+    private final String message;
+
+    private JwtVerification(JwtStatus status, Claims claims, String message) {
+        this.status = status;
+        this.claims = claims;
+        this.message = message;
+    }
+
+    static JwtVerification valid(Claims claims) {
+        return new JwtVerification(JwtStatus.VALID, claims, null);
+    }
+
+    static JwtVerification invalid(JwtStatus status, String message) {
+        return new JwtVerification(status, null, message);
+    }
+
+    public boolean isValid() {
+        return status == JwtStatus.VALID;
+    }
+
+    public JwtStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the verified claims, or null if the token is not valid
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return the token subject, or null if the token is not valid
+     */
+    public String getSubject() {
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    /**
+     * @return the token expiry, or null if the token is not valid
+     */
+    public Date getExpiration() {
+        return claims != null ? claims.getExpiration() : null;
+    }
+
+    /**
+     * @return why verification failed, or null if the token is valid
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,89 @@
+package com.microservices.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+
+import java.security.Key;
+
+/**
+ * Verifies HMAC-signed JWTs with a key and parser that are built once.
+ * Both are immutable, so a single instance can be shared by all request threads.
+ */
+public class JwtVerifier {
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    /**
+     * Create a verifier for tokens signed with the given secret.
+     *
+     * @param base64Secret the Base64-encoded HMAC secret
+     */
+    public JwtVerifier(String base64Secret) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * Get the key tokens are signed with, for issuing new tokens.
+     *
+     * @return the signing key
+     */
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Parse and verify a token once. Invalid tokens are reported through the result.
+     * A token without an expiration would never expire, so it is reported as {@link JwtStatus#INVALID}
+     * even when its signature is good.
+     *
+     * @param token the compact JWT string
+     * @return the verification result
+     */
+    public JwtVerification verify(String token) {
+        // Reject obviously broken input before paying for a parse
+        if (token == null || token.isBlank()) {
+            return JwtVerification.invalid(JwtStatus.EMPTY, "JWT string is empty");
+        }
+        if (!hasCompactShape(token)) {
+            return JwtVerification.invalid(JwtStatus.MALFORMED, "JWT must contain exactly 2 period characters");
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                return JwtVerification.invalid(JwtStatus.INVALID, "JWT has no expiration");
+            }
+            return JwtVerification.valid(claims);
+        } catch (ExpiredJwtException e) {
+            return JwtVerification.invalid(JwtStatus.EXPIRED, e.getMessage());
+        } catch (SecurityException e) {
+            return JwtVerification.invalid(JwtStatus.INVALID_SIGNATURE, e.getMessage());
+        } catch (MalformedJwtException e) {
+            return JwtVerification.invalid(JwtStatus.MALFORMED, e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            return JwtVerification.invalid(JwtStatus.UNSUPPORTED, e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            return JwtVerification.invalid(JwtStatus.INVALID, e.getMessage());
+        }
+    }
+
+    private static boolean hasCompactShape(String token) {
+        int first = token.indexOf('.');
+        if (first <= 0) {
+            return false;
+        }
+        int second = token.indexOf('.', first + 1);
+        return second > first + 1 && token.indexOf('.', second + 1) < 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.microservices.jwt;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtVerifierTest {
+    private static final String SECRET = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+    private static final String OTHER_SECRET = "0c5d29a1e4b87f3a6d1e90b2c47f58e3a91d06bc72e4f815d3a60c9b2e7f4a18";
+
+    private final JwtVerifier verifier = new JwtVerifier(SECRET);
+
+    @Test
+    void validTokenCarriesItsClaims() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .claim(JwtClaimNames.USER_ID, 7)
+                .setExpiration(expiration)
+                .signWith(verifier.getSigningKey())
+                .compact();
+
+        JwtVerification verification = verifier.verify(token);
+
+        assertThat(verification.getStatus()).isEqualTo(JwtStatus.VALID);
+        assertThat(verification.isValid()).isTrue();
+        assertThat(verification.getSubject()).isEqualTo("alice");
+        assertThat(verification.getClaims().get(JwtClaimNames.USER_ID, Integer.class)).isEqualTo(7);
+        assertThat(verification.getExpiration()).isCloseTo(expiration, 1000);
+        assertThat(verification.getMessage()).isNull();
+    }
+
+    @Test
+    void expiredToken() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(verifier.getSigningKey())
+                .compact();
+
+        assertInvalid(verifier.verify(token), JwtStatus.EXPIRED);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKey() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(new JwtVerifier(OTHER_SECRET).getSigningKey())
+                .compact();
+
+        assertInvalid(verifier.verify(token), JwtStatus.INVALID_SIGNATURE);
+    }
+
+    @Test
+    void malformedToken() {
+        assertInvalid(verifier.verify("not-a-token"), JwtStatus.MALFORMED);
+        assertInvalid(verifier.verify("a..b"), JwtStatus.MALFORMED);
+        assertInvalid(verifier.verify(".a.b"), JwtStatus.MALFORMED);
+        assertInvalid(verifier.verify("a.b.c.d"), JwtStatus.MALFORMED);
+    }
+
+    @Test
+    void blankToken() {
+        assertInvalid(verifier.verify(null), JwtStatus.EMPTY);
+        assertInvalid(verifier.verify(""), JwtStatus.EMPTY);
+        assertInvalid(verifier.verify("   "), JwtStatus.EMPTY);
+    }
+
+    @Test
+    void unsignedToken() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        assertInvalid(verifier.verify(token), JwtStatus.UNSUPPORTED);
+    }
+
+    @Test
+    void tokenWithoutExpirationIsRejected() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .signWith(verifier.getSigningKey())
+                .compact();
+
+        assertInvalid(verifier.verify(token), JwtStatus.INVALID);
+    }
+
+    private static void assertInvalid(JwtVerification verification, JwtStatus status) {
+        assertThat(verification.getStatus()).isEqualTo(status);
+        assertThat(verification.isValid()).isFalse();
+        assertThat(verification.getClaims()).isNull();
+        assertThat(verification.getMessage()).isNotBlank();
+    }
+}